@@ -4,24 +4,60 @@ import io.javalin.Javalin;
 import io.javalin.util.JavalinLogger;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import net.orbismc.omcapi.listener.PlayerListener;
+import net.orbismc.omcapi.listener.PluginListener;
+import net.orbismc.omcapi.listener.TownyListener;
+import net.orbismc.omcapi.manager.BalanceManager;
+import net.orbismc.omcapi.manager.ChangeFeedManager;
 import net.orbismc.omcapi.manager.EndpointManager;
+import net.orbismc.omcapi.manager.LeaderboardManager;
+import net.orbismc.omcapi.manager.McMMOManager;
+import net.orbismc.omcapi.manager.PlayerDirectoryManager;
+import net.orbismc.omcapi.manager.PushManager;
+import net.orbismc.omcapi.manager.SearchManager;
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.manager.StatsManager;
+import net.orbismc.omcapi.manager.TileManager;
+import net.orbismc.omcapi.manager.TownyLeaderboardManager;
+import net.orbismc.omcapi.manager.WorldAccessManager;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.ErrorPageErrorHandler;
 import org.eclipse.jetty.webapp.WebAppContext;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class OMCAPI extends JavaPlugin {
 
     public static OMCAPI instance;
     private Javalin javalin;
     private Economy economy;
+    private SnapshotManager snapshotManager;
+    private StatsManager statsManager;
+    private ChangeFeedManager changeFeedManager;
+    private PushManager pushManager;
+    private TileManager tileManager;
+    private SearchManager searchManager;
+    private McMMOManager mcMMOManager;
+    private LeaderboardManager leaderboardManager;
+    private PlayerDirectoryManager playerDirectoryManager;
+    private BalanceManager balanceManager;
+    private TownyLeaderboardManager townyLeaderboardManager;
+    private WorldAccessManager worldAccessManager;
+    private ExecutorService lookupExecutor;
 
     @Override
     public void onLoad() {
@@ -35,20 +71,87 @@ public final class OMCAPI extends JavaPlugin {
 
         loadConfig();
         setupEconomy();
+
+        statsManager = new StatsManager(Math.max(0, getConfig().getLong("behaviour.stats_reconcile_interval_seconds")) * 1000);
+        statsManager.recount();
+        snapshotManager = new SnapshotManager(this, statsManager);
+        changeFeedManager = new ChangeFeedManager(getConfig().getInt("behaviour.change_feed_size"));
+        // Half the idle timeout, so an event stream on a quiet topic is never closed as idle
+        pushManager = new PushManager(getConfig().getInt("behaviour.push_dispatch_threads"), getConfig().getInt("behaviour.push_queue_size"), getConfig().getLong("networking.idle_timeout_ms") / 2);
+        tileManager = new TileManager(snapshotManager, getConfig().getInt("behaviour.tile_max_zoom"), getConfig().getInt("behaviour.max_cached_tiles"));
+        searchManager = new SearchManager();
+        playerDirectoryManager = new PlayerDirectoryManager(this, snapshotManager);
+        playerDirectoryManager.load();
+        balanceManager = new BalanceManager(getConfig(), economy, playerDirectoryManager);
+        townyLeaderboardManager = new TownyLeaderboardManager(snapshotManager, balanceManager);
+        snapshotManager.addListener(statsManager);
+        snapshotManager.addListener(changeFeedManager);
+        snapshotManager.addListener(pushManager);
+        snapshotManager.addListener(tileManager);
+        snapshotManager.addListener(searchManager);
+        snapshotManager.addListener(playerDirectoryManager);
+        snapshotManager.addListener(balanceManager);
+        snapshotManager.addListener(townyLeaderboardManager);
+        getServer().getPluginManager().registerEvents(new TownyListener(changeFeedManager, pushManager, snapshotManager, searchManager, statsManager), this);
+        getServer().getPluginManager().registerEvents(new PlayerListener(pushManager, playerDirectoryManager, statsManager), this);
+
+        mcMMOManager = new McMMOManager(this);
+        mcMMOManager.hook();
+        getServer().getPluginManager().registerEvents(new PluginListener(mcMMOManager), this);
+        leaderboardManager = new LeaderboardManager(this, mcMMOManager);
+        leaderboardManager.start();
+
+        snapshotManager.start();
+        worldAccessManager = new WorldAccessManager(this);
+
+        initialiseLookupExecutor();
         initialiseJavalin();
 
-        EndpointManager endpointManager = new EndpointManager(javalin, getConfig(), economy);
+        EndpointManager endpointManager = new EndpointManager(javalin, getConfig(), snapshotManager, changeFeedManager, pushManager, tileManager, searchManager, mcMMOManager, leaderboardManager, playerDirectoryManager, balanceManager, townyLeaderboardManager, worldAccessManager);
         endpointManager.loadEndpoints();
     }
 
     @Override
     public void onDisable() {
+        pushManager.shutdown();
         javalin.stop();
+        snapshotManager.stop();
+        leaderboardManager.stop();
+        balanceManager.shutdown();
+        if (lookupExecutor != null) lookupExecutor.shutdownNow();
+    }
+
+    public SnapshotManager getSnapshotManager() {
+        return snapshotManager;
+    }
+
+    /**
+     * @return the executor POST lookups resolve their entries on in parallel, or null if each lookup is
+     * resolved as one batch on the request thread
+     */
+    public ExecutorService getLookupExecutor() {
+        return lookupExecutor;
+    }
+
+    private void initialiseLookupExecutor() {
+        int parallelism = getConfig().getInt("behaviour.lookup_parallelism");
+        if (parallelism <= 1) return;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        lookupExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "OMCAPI-Lookup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     private void initialiseJavalin() {
         javalin = Javalin.create(config -> {
+            // Javalin looks for virtual threads at runtime, so this works on a Java 17 build run on Java 21 and is ignored on older runtimes
+            config.useVirtualThreads = getConfig().getBoolean("networking.virtual_threads");
             config.jetty.modifyServer(server -> {
+                // Javalin only adds its default connector when the server has none
+                server.addConnector(createConnector(server));
                 disableServerVersionHeader(server);
 
                 WebAppContext context = new WebAppContext();
@@ -77,6 +180,34 @@ public final class OMCAPI extends JavaPlugin {
         economy = rsp.getProvider();
     }
 
+    /**
+     * Builds the HTTP connector from the networking section of the config, speaking HTTP/1.1 and, if enabled, h2c on the same port
+     */
+    private ServerConnector createConnector(Server server) {
+        FileConfiguration config = getConfig();
+
+        HttpConfiguration httpConfiguration = new HttpConfiguration();
+        httpConfiguration.setPersistentConnectionsEnabled(config.getBoolean("networking.keep_alive"));
+        httpConfiguration.setOutputBufferSize(Math.max(1024, config.getInt("networking.output_buffer_size")));
+
+        ConnectionFactory http1 = new HttpConnectionFactory(httpConfiguration);
+        ConnectionFactory[] factories;
+        if (config.getBoolean("networking.h2c")) {
+            HTTP2CServerConnectionFactory h2c = new HTTP2CServerConnectionFactory(httpConfiguration);
+            h2c.setMaxConcurrentStreams(Math.max(1, config.getInt("networking.h2c_max_concurrent_streams")));
+            factories = new ConnectionFactory[]{http1, h2c};
+        } else {
+            factories = new ConnectionFactory[]{http1};
+        }
+
+        ServerConnector connector = new ServerConnector(server, config.getInt("networking.acceptors"), config.getInt("networking.selectors"), factories);
+        connector.setHost(config.getString("networking.host"));
+        connector.setPort(config.getInt("networking.port"));
+        connector.setIdleTimeout(Math.max(1, config.getLong("networking.idle_timeout_ms")));
+
+        return connector;
+    }
+
     private void disableServerVersionHeader(final Server server) {
         for (Connector conn : server.getConnectors()) {
             conn.getConnectionFactories().stream()
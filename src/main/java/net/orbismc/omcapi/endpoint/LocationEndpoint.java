@@ -1,20 +1,43 @@
 package net.orbismc.omcapi.endpoint;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.palmergames.bukkit.towny.TownyAPI;
-import com.palmergames.bukkit.towny.object.Town;
 import io.javalin.http.BadRequestResponse;
 import kotlin.Pair;
+import net.orbismc.omcapi.OMCAPI;
+import net.orbismc.omcapi.manager.SnapshotManager;
 import net.orbismc.omcapi.object.endpoint.PostEndpoint;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.TownSnapshot;
 import net.orbismc.omcapi.util.EndpointUtils;
 import net.orbismc.omcapi.util.JSONUtil;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
+import net.orbismc.omcapi.util.LongIntHashMap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class LocationEndpoint extends PostEndpoint<Pair<Integer, Integer>> {
 
+    // Marks a townblock that has not been resolved yet in a bulk lookup, -1 is used for wilderness
+    private static final int UNRESOLVED = -2;
+
+    private final SnapshotManager snapshotManager;
+
+    public LocationEndpoint(SnapshotManager snapshotManager) {
+        this.snapshotManager = snapshotManager;
+    }
+
     @Override
     public Pair<Integer, Integer> getObjectOrNull(JsonElement element) {
         JsonArray jsonArray = JSONUtil.getJsonElementAsJsonArrayOrNull(element);
@@ -44,9 +67,9 @@ public class LocationEndpoint extends PostEndpoint<Pair<Integer, Integer>> {
         int x = pair.getFirst();
         int z = pair.getSecond();
 
-        Location location = new Location(Bukkit.getWorlds().get(0), x, 0, z);
-        TownyAPI townyAPI = TownyAPI.getInstance();
-        Town town = townyAPI.getTown(location);
+        DataSnapshot snapshot = snapshotManager.getSnapshot();
+        int townBlockSize = snapshot.getServer().getTownBlockSize();
+        TownSnapshot town = snapshot.getTownAt(snapshot.getServer().getDefaultWorld(), Math.floorDiv(x, townBlockSize), Math.floorDiv(z, townBlockSize));
 
         JsonObject jsonObject = new JsonObject();
         JsonObject locationObject = new JsonObject();
@@ -54,11 +77,115 @@ public class LocationEndpoint extends PostEndpoint<Pair<Integer, Integer>> {
         locationObject.addProperty("z", z);
         jsonObject.add("location", locationObject);
 
-        jsonObject.addProperty("isWilderness", townyAPI.isWilderness(location));
+        jsonObject.addProperty("isWilderness", town == null);
 
-        jsonObject.add("town", EndpointUtils.getTownJsonObject(town));
-        jsonObject.add("nation", EndpointUtils.getNationJsonObject(town == null ? null : town.getNationOrNull()));
+        jsonObject.add("town", EndpointUtils.getNamedJsonObject(town));
+        jsonObject.add("nation", EndpointUtils.getNamedJsonObject(town == null ? null : town.getNation()));
 
         return jsonObject;
     }
+
+    /**
+     * Resolves a large batch of coordinates in one pass. The body is streamed as {"world": "...", "query": [[x, z], ...]}
+     * and the response is columnar: every distinct town is listed once, and townIndex holds, per coordinate, the index
+     * of its town in that list or -1 for wilderness. Each distinct townblock is only resolved once.
+     */
+    public void bulkLookup(InputStream inputStream, OutputStream outputStream) throws IOException {
+        DataSnapshot snapshot = snapshotManager.getSnapshot();
+        int maxSize = OMCAPI.instance.getConfig().getInt("behaviour.max_bulk_location_size");
+
+        String world = null;
+        int[] coords = new int[256];
+        int numCoords = 0;
+
+        try (JsonParser parser = JSONUtil.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) throw new BadRequestResponse("Invalid JSON body provided");
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+
+                if (fieldName.equals("world") && token == JsonToken.VALUE_STRING) {
+                    world = parser.getText();
+                } else if (fieldName.equals("query") && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (numCoords / 2 >= maxSize) {
+                            parser.skipChildren();
+                            continue;
+                        }
+
+                        if (parser.currentToken() != JsonToken.START_ARRAY
+                                || parser.nextToken() != JsonToken.VALUE_NUMBER_INT) throw new BadRequestResponse("A JSON array in your query did not contain two ints");
+                        int x = parser.getIntValue();
+                        if (parser.nextToken() != JsonToken.VALUE_NUMBER_INT) throw new BadRequestResponse("A JSON array in your query did not contain two ints");
+                        int z = parser.getIntValue();
+                        if (parser.nextToken() != JsonToken.END_ARRAY) throw new BadRequestResponse("A JSON array in your query contained more than two values");
+
+                        if (numCoords + 2 > coords.length) coords = Arrays.copyOf(coords, coords.length * 2);
+                        coords[numCoords++] = x;
+                        coords[numCoords++] = z;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new BadRequestResponse("Invalid JSON body provided");
+        }
+
+        if (world == null) world = snapshot.getServer().getDefaultWorld();
+        int townBlockSize = snapshot.getServer().getTownBlockSize();
+
+        int size = numCoords / 2;
+        int[] townIndexes = new int[size];
+        List<TownSnapshot> towns = new ArrayList<>();
+        Map<TownSnapshot, Integer> townColumns = new IdentityHashMap<>();
+        LongIntHashMap resolvedTownBlocks = new LongIntHashMap(Math.min(size, 4096));
+
+        for (int i = 0; i < size; i++) {
+            int townBlockX = Math.floorDiv(coords[i * 2], townBlockSize);
+            int townBlockZ = Math.floorDiv(coords[i * 2 + 1], townBlockSize);
+            long key = DataSnapshot.townBlockKey(townBlockX, townBlockZ);
+
+            int townIndex = resolvedTownBlocks.get(key, UNRESOLVED);
+            if (townIndex == UNRESOLVED) {
+                TownSnapshot town = snapshot.getTownAt(world, townBlockX, townBlockZ);
+                if (town == null) {
+                    townIndex = -1;
+                } else {
+                    townIndex = townColumns.computeIfAbsent(town, newTown -> {
+                        towns.add(newTown);
+                        return towns.size() - 1;
+                    });
+                }
+
+                resolvedTownBlocks.put(key, townIndex);
+            }
+
+            townIndexes[i] = townIndex;
+        }
+
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("world", world);
+            generator.writeNumberField("numLocations", size);
+            generator.writeNumberField("numTownBlocks", resolvedTownBlocks.size());
+
+            generator.writeArrayFieldStart("towns");
+            for (TownSnapshot town : towns) {
+                generator.writeStartObject();
+                generator.writeStringField("name", town.getName());
+                generator.writeStringField("uuid", town.getUUID().toString());
+                generator.writeFieldName("nation");
+                EndpointUtils.writeNamedObject(generator, town.getNation());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeFieldName("townIndex");
+            generator.writeArray(townIndexes, 0, size);
+
+            generator.writeEndObject();
+        }
+    }
 }
@@ -3,26 +3,28 @@ package net.orbismc.omcapi.endpoint;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.palmergames.bukkit.towny.TownyAPI;
-import com.palmergames.bukkit.towny.TownySettings;
-import com.palmergames.bukkit.towny.object.Town;
-import com.palmergames.bukkit.towny.object.TownBlock;
-import com.palmergames.bukkit.towny.object.WorldCoord;
-import com.palmergames.util.MathUtil;
 import io.javalin.http.BadRequestResponse;
 import kotlin.Pair;
+import net.orbismc.omcapi.OMCAPI;
+import net.orbismc.omcapi.manager.SnapshotManager;
 import net.orbismc.omcapi.object.nearby.NearbyContext;
 import net.orbismc.omcapi.object.endpoint.PostEndpoint;
 import net.orbismc.omcapi.object.nearby.NearbyType;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.HomeBlockIndex;
+import net.orbismc.omcapi.object.snapshot.TownSnapshot;
 import net.orbismc.omcapi.util.EndpointUtils;
 import net.orbismc.omcapi.util.JSONUtil;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import java.util.ArrayList;
 import java.util.List;
 
 public class NearbyEndpoint extends PostEndpoint<NearbyContext> {
 
+    private final SnapshotManager snapshotManager;
+
+    public NearbyEndpoint(SnapshotManager snapshotManager) {
+        this.snapshotManager = snapshotManager;
+    }
+
     @Override
     public NearbyContext getObjectOrNull(JsonElement element) {
         JsonObject jsonObject = JSONUtil.getJsonElementAsJsonObjectOrNull(element);
@@ -42,7 +44,12 @@ public class NearbyEndpoint extends PostEndpoint<NearbyContext> {
         }
 
         Integer radius = JSONUtil.getJsonElementAsIntegerOrNull(jsonObject.get("radius"));
-        if (radius == null) throw new BadRequestResponse("You did not specify a radius");
+        Integer count = JSONUtil.getJsonElementAsIntegerOrNull(jsonObject.get("count"));
+        if (radius == null && count == null) throw new BadRequestResponse("You did not specify a radius or count");
+        if (radius != null && radius < 0) throw new BadRequestResponse("Invalid radius provided");
+        if (count != null && count < 1) throw new BadRequestResponse("Invalid count provided");
+
+        if (count != null) count = Math.min(count, OMCAPI.instance.getConfig().getInt("behaviour.max_nearby_count"));
 
         JsonElement targetElement = jsonObject.get("target");
         if (targetType.equals(NearbyType.COORDINATE)) {
@@ -51,12 +58,12 @@ public class NearbyEndpoint extends PostEndpoint<NearbyContext> {
 
             Pair<Integer, Integer> pair = new Pair<>(jsonArray.get(0).getAsInt(), jsonArray.get(1).getAsInt());
 
-            return new NearbyContext(targetType, pair, searchType, radius);
+            return new NearbyContext(targetType, pair, searchType, radius, count);
         } else if (targetType.equals(NearbyType.TOWN)) {
             String target = JSONUtil.getJsonElementAsStringOrNull(targetElement);
             if (target == null) throw new BadRequestResponse("Your target is not a valid string");
 
-            return new NearbyContext(targetType, target, searchType, radius);
+            return new NearbyContext(targetType, target, searchType, radius, count);
         }
 
         return null;
@@ -64,61 +71,59 @@ public class NearbyEndpoint extends PostEndpoint<NearbyContext> {
 
     @Override
     public JsonElement getJsonElement(NearbyContext context) {
+        DataSnapshot snapshot = snapshotManager.getSnapshot();
         NearbyType targetType = context.getTargetType();
-        int radius = context.getRadius();
         switch (targetType) {
             case COORDINATE -> {
                 Pair<Integer, Integer> pair = context.getTargetCoordinate();
 
-                return lookupNearbyCoordinate(pair.getFirst(), pair.getSecond(), radius);
+                return lookupNearbyCoordinate(snapshot, pair.getFirst(), pair.getSecond(), context.getRadius(), context.getCount());
             }
             case TOWN -> {
                 String townName = context.getTargetString();
 
-                return lookupNearbyTown(townName, radius);
+                return lookupNearbyTown(snapshot, townName, context.getRadius(), context.getCount());
             }
         };
 
         return null;
     }
 
-    public JsonArray lookupNearbyCoordinate(Integer x, Integer z, Integer radius) {
+    public JsonArray lookupNearbyCoordinate(DataSnapshot snapshot, Integer x, Integer z, Integer radius, Integer count) {
         if (x == null || z == null) throw new BadRequestResponse("Invalid coordinates provided");
-        if (radius == null || radius < 0) throw new BadRequestResponse("Invalid radius provided");
 
-        Location location = new Location(Bukkit.getWorlds().get(0), x, 0, z);
+        int townBlockSize = snapshot.getServer().getTownBlockSize();
+        String world = snapshot.getServer().getDefaultWorld();
 
-        return getJsonArrayOfNearbyTowns(WorldCoord.parseWorldCoord(location), radius, null);
+        return getJsonArrayOfNearbyTowns(snapshot, world, Math.floorDiv(x, townBlockSize), Math.floorDiv(z, townBlockSize), radius, count, null);
     }
 
-    public JsonElement lookupNearbyTown(String townString, Integer radius) {
+    public JsonElement lookupNearbyTown(DataSnapshot snapshot, String townString, Integer radius, Integer count) {
         if (townString == null) throw new BadRequestResponse("Invalid town provided");
 
-        Town town = TownyAPI.getInstance().getTown(townString);
+        TownSnapshot town = snapshot.getTown(townString);
         if (town == null) throw new BadRequestResponse(townString + " is not a real town");
 
-        if (radius == null || radius < 0) throw new BadRequestResponse("Invalid radius provided");
-
-        TownBlock homeBlock = town.getHomeBlockOrNull();
-        if (homeBlock == null) throw new BadRequestResponse("The specified town has no homeblock");
+        if (town.getHomeBlockWorld() == null) throw new BadRequestResponse("The specified town has no homeblock");
 
-        return getJsonArrayOfNearbyTowns(homeBlock.getWorldCoord(), radius, town);
+        return getJsonArrayOfNearbyTowns(snapshot, town.getHomeBlockWorld(), town.getHomeBlockX(), town.getHomeBlockZ(), radius, count, town);
     }
 
-    private JsonArray getJsonArrayOfNearbyTowns(WorldCoord worldCoord, int radius, Town town) {
-        List<Town> towns = new ArrayList<>();
-
-        for (Town otherTown : TownyAPI.getInstance().getTowns()) {
-            if (town != null && town == otherTown) continue; // Don't add the town we are looking nearby
-
-            TownBlock homeBlock = otherTown.getHomeBlockOrNull();
-            if (homeBlock == null) continue;
-
-            WorldCoord homeBlockWorldCoord = homeBlock.getWorldCoord();
-
-            if (MathUtil.distance(worldCoord, homeBlockWorldCoord) * TownySettings.getTownBlockSize() <= radius) towns.add(otherTown);
+    /**
+     * Searches the snapshot's homeblock index around a townblock coordinate, nearest towns first.
+     * Only towns with their homeblock in the same world are matched, coordinate targets are taken to be in the default world.
+     */
+    private JsonArray getJsonArrayOfNearbyTowns(DataSnapshot snapshot, String world, int x, int z, Integer radius, Integer count, TownSnapshot town) {
+        HomeBlockIndex homeBlockIndex = snapshot.getHomeBlockIndex();
+        double maxDistance = radius == null ? Double.POSITIVE_INFINITY : (double) radius / snapshot.getServer().getTownBlockSize();
+
+        List<TownSnapshot> towns;
+        if (count == null) {
+            towns = homeBlockIndex.getWithinRadius(world, x, z, maxDistance, town);
+        } else {
+            towns = homeBlockIndex.getNearest(world, x, z, count, maxDistance, town);
         }
 
-        return EndpointUtils.getTownArray(towns);
+        return EndpointUtils.getNamedArray(towns);
     }
 }
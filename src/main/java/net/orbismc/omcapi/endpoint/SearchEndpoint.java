@@ -0,0 +1,42 @@
+package net.orbismc.omcapi.endpoint;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import net.orbismc.omcapi.manager.SearchManager;
+import net.orbismc.omcapi.object.search.NameIndex;
+import net.orbismc.omcapi.util.EndpointUtils;
+import net.orbismc.omcapi.util.JSONUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+public class SearchEndpoint {
+
+    public static final Set<String> TYPES = Set.of("players", "towns", "nations");
+
+    private final SearchManager searchManager;
+
+    public SearchEndpoint(SearchManager searchManager) {
+        this.searchManager = searchManager;
+    }
+
+    /**
+     * Writes the first matches for the prefix of each requested type, keyed by type
+     */
+    public void lookup(String prefix, Set<String> types, int limit, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            generator.writeStartObject();
+
+            if (types.contains("players")) writeMatches(generator, "players", searchManager.getResidents(), prefix, limit);
+            if (types.contains("towns")) writeMatches(generator, "towns", searchManager.getTowns(), prefix, limit);
+            if (types.contains("nations")) writeMatches(generator, "nations", searchManager.getNations(), prefix, limit);
+
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeMatches(JsonGenerator generator, String fieldName, NameIndex index, String prefix, int limit) throws IOException {
+        generator.writeFieldName(fieldName);
+        EndpointUtils.writeNamedArray(generator, index.search(prefix, limit));
+    }
+}
@@ -2,16 +2,20 @@ package net.orbismc.omcapi.endpoint;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.palmergames.bukkit.towny.TownyAPI;
-import com.palmergames.bukkit.towny.TownySettings;
-import me.casperge.realisticseasons.calendar.Date;
+import net.orbismc.omcapi.manager.SnapshotManager;
 import net.orbismc.omcapi.object.endpoint.GetEndpoint;
-import net.orbismc.omcapi.util.EndpointUtils;
-import org.bukkit.Bukkit;
-import org.bukkit.World;
+import net.orbismc.omcapi.object.snapshot.ServerSnapshot;
+import net.orbismc.omcapi.object.snapshot.WorldSeasonSnapshot;
 import java.time.LocalTime;
-import me.casperge.realisticseasons.api.SeasonsAPI;
+
 public class ServerEndpoint extends GetEndpoint {
+
+    private final SnapshotManager snapshotManager;
+
+    public ServerEndpoint(SnapshotManager snapshotManager) {
+        this.snapshotManager = snapshotManager;
+    }
+
     @Override
     public String lookup() {
         return getJsonElement().toString();
@@ -20,66 +24,40 @@ public class ServerEndpoint extends GetEndpoint {
     @Override
     public JsonObject getJsonElement() {
         JsonObject serverObject = new JsonObject();
-        SeasonsAPI seasonsapi = SeasonsAPI.getInstance();
-        TownyAPI townyAPI = TownyAPI.getInstance();
-
-        World overworld = Bukkit.getWorlds().stream()
-                .filter(world -> world.getEnvironment() == World.Environment.NORMAL)
-                .findFirst()
-                .orElse(Bukkit.getWorlds().get(0));
+        ServerSnapshot server = snapshotManager.getSnapshot().getServer();
 
-        serverObject.addProperty("version", Bukkit.getMinecraftVersion());
-        serverObject.addProperty("moonPhase", overworld.getMoonPhase().toString());
+        serverObject.addProperty("version", server.getVersion());
+        serverObject.addProperty("moonPhase", server.getMoonPhase());
 
         JsonObject timestampsObject = new JsonObject();
-        timestampsObject.addProperty("newDayTime", TownySettings.getNewDayTime());
+        timestampsObject.addProperty("newDayTime", server.getNewDayTime());
         timestampsObject.addProperty("serverTimeOfDay", LocalTime.now().toSecondOfDay());
         serverObject.add("timestamps", timestampsObject);
 
         JsonObject statusObject = new JsonObject();
-
-        boolean isWinter = seasonsapi.getSeason(overworld).toString().equalsIgnoreCase("Winter");
-        boolean isSnowing = isWinter && (overworld.hasStorm() || overworld.isThundering());
-
-        statusObject.addProperty("hasStorm", overworld.hasStorm());
-        statusObject.addProperty("isThundering", overworld.isThundering());
-        statusObject.addProperty("isSnowing", isSnowing);
+        statusObject.addProperty("hasStorm", server.hasStorm());
+        statusObject.addProperty("isThundering", server.isThundering());
+        statusObject.addProperty("isSnowing", server.isSnowing());
 
         serverObject.add("status", statusObject);
 
-        JsonObject statsObject = new JsonObject();
-        statsObject.addProperty("time", overworld.getTime());
-        statsObject.addProperty("fullTime", overworld.getFullTime());
-        statsObject.addProperty("maxPlayers", Bukkit.getMaxPlayers());
-        statsObject.addProperty("numOnlinePlayers", Bukkit.getOnlinePlayers().size());
-        statsObject.addProperty("numOnlineNomads", EndpointUtils.getNumOnlineNomads());
-        statsObject.addProperty("numResidents", townyAPI.getResidents().size());
-        statsObject.addProperty("numNomads", townyAPI.getResidentsWithoutTown().size());
-        statsObject.addProperty("numTowns", townyAPI.getTowns().size());
-        statsObject.addProperty("numTownBlocks", townyAPI.getTownBlocks().size());
-        statsObject.addProperty("numNations", townyAPI.getNations().size());
-        serverObject.add("stats", statsObject);
+        serverObject.add("stats", getStatsObject(server));
 
 
         JsonObject seasonsObject = new JsonObject();
         JsonArray worldSeasonsArray = new JsonArray();
 
-        // Iterate through all worlds to capture season details
-        for (World world : Bukkit.getWorlds()) {
+        for (WorldSeasonSnapshot worldSeason : server.getSeasons()) {
             JsonObject worldSeasonObject = new JsonObject();
-            worldSeasonObject.addProperty("worldName", world.getName());
-
-            Date worldDate = seasonsapi.getDate(world);
-            if (worldDate != null) {
-                worldSeasonObject.addProperty("date", worldDate.toString());
-                worldSeasonObject.addProperty("currentSeason", seasonsapi.getSeason(world).toString());
-                worldSeasonObject.addProperty("dayOfWeek", seasonsapi.getDayOfWeek(world));
-                worldSeasonObject.addProperty("monthName", seasonsapi.getCurrentMonthName(world));
-                worldSeasonObject.addProperty("worldSeconds", seasonsapi.getSeconds(world));
-                worldSeasonObject.addProperty("worldMinutes", seasonsapi.getMinutes(world));
-                worldSeasonObject.addProperty("worldHours", seasonsapi.getHours(world));
-                worldSeasonsArray.add(worldSeasonObject);
-            }
+            worldSeasonObject.addProperty("worldName", worldSeason.getWorldName());
+            worldSeasonObject.addProperty("date", worldSeason.getDate());
+            worldSeasonObject.addProperty("currentSeason", worldSeason.getCurrentSeason());
+            worldSeasonObject.addProperty("dayOfWeek", worldSeason.getDayOfWeek());
+            worldSeasonObject.addProperty("monthName", worldSeason.getMonthName());
+            worldSeasonObject.addProperty("worldSeconds", worldSeason.getWorldSeconds());
+            worldSeasonObject.addProperty("worldMinutes", worldSeason.getWorldMinutes());
+            worldSeasonObject.addProperty("worldHours", worldSeason.getWorldHours());
+            worldSeasonsArray.add(worldSeasonObject);
         }
 
         seasonsObject.add("worlds", worldSeasonsArray);
@@ -88,4 +66,20 @@ public class ServerEndpoint extends GetEndpoint {
 
         return serverObject;
     }
+
+    public static JsonObject getStatsObject(ServerSnapshot server) {
+        JsonObject statsObject = new JsonObject();
+        statsObject.addProperty("time", server.getTime());
+        statsObject.addProperty("fullTime", server.getFullTime());
+        statsObject.addProperty("maxPlayers", server.getMaxPlayers());
+        statsObject.addProperty("numOnlinePlayers", server.getNumOnlinePlayers());
+        statsObject.addProperty("numOnlineNomads", server.getNumOnlineNomads());
+        statsObject.addProperty("numResidents", server.getNumResidents());
+        statsObject.addProperty("numNomads", server.getNumNomads());
+        statsObject.addProperty("numTowns", server.getNumTowns());
+        statsObject.addProperty("numTownBlocks", server.getNumTownBlocks());
+        statsObject.addProperty("numNations", server.getNumNations());
+
+        return statsObject;
+    }
 }
\ No newline at end of file
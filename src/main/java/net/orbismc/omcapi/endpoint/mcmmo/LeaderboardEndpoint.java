@@ -0,0 +1,73 @@
+package net.orbismc.omcapi.endpoint.mcmmo;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.javalin.http.NotFoundResponse;
+import io.javalin.http.ServiceUnavailableResponse;
+import net.orbismc.omcapi.manager.LeaderboardManager;
+import net.orbismc.omcapi.util.JSONUtil;
+import net.orbismc.omcapi.util.RankedSet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public class LeaderboardEndpoint {
+
+    private final LeaderboardManager leaderboardManager;
+
+    public LeaderboardEndpoint(LeaderboardManager leaderboardManager) {
+        this.leaderboardManager = leaderboardManager;
+    }
+
+    /**
+     * Writes the entries ranked from offset onwards, ranks starting at 1
+     */
+    public void lookup(String skill, int offset, int limit, OutputStream outputStream) throws IOException {
+        RankedSet<String> leaderboard = getLeaderboard(skill);
+
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("skill", skill.toUpperCase(Locale.ROOT));
+            generator.writeNumberField("numEntries", leaderboard.size());
+
+            generator.writeArrayFieldStart("entries");
+            int rank = offset + 1;
+            for (RankedSet.Entry<String> entry : leaderboard.getRange(offset, limit)) {
+                generator.writeStartObject();
+                generator.writeNumberField("rank", rank++);
+                generator.writeStringField("name", entry.key());
+                generator.writeNumberField("level", (int) entry.score());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    public void lookupRank(String skill, String player, OutputStream outputStream) throws IOException {
+        RankedSet<String> leaderboard = getLeaderboard(skill);
+
+        int rank = leaderboard.rankOf(player);
+        Double level = leaderboard.getScore(player);
+        if (rank == -1 || level == null) throw new NotFoundResponse(player + " is not in the tracked part of this leaderboard");
+
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("skill", skill.toUpperCase(Locale.ROOT));
+            generator.writeStringField("name", player);
+            generator.writeNumberField("rank", rank + 1);
+            generator.writeNumberField("level", level.intValue());
+            generator.writeEndObject();
+        }
+    }
+
+    private RankedSet<String> getLeaderboard(String skill) {
+        if (!leaderboardManager.isAvailable()) throw new ServiceUnavailableResponse("mcMMO leaderboards are not available");
+
+        RankedSet<String> leaderboard = leaderboardManager.getLeaderboard(skill.toUpperCase(Locale.ROOT));
+        if (leaderboard == null) throw new NotFoundResponse("Unknown skill " + skill);
+
+        return leaderboard;
+    }
+}
@@ -1,20 +1,43 @@
 package net.orbismc.omcapi.endpoint.mcmmo;
 
-import com.google.gson.JsonArray;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import io.javalin.http.BadRequestResponse;
+import net.orbismc.omcapi.manager.McMMOManager;
+import net.orbismc.omcapi.manager.PlayerDirectoryManager;
+import net.orbismc.omcapi.manager.WorldAccessManager;
+import net.orbismc.omcapi.object.endpoint.FieldSelector;
 import net.orbismc.omcapi.object.endpoint.PostEndpoint;
+import net.orbismc.omcapi.object.mcmmo.SkillData;
 import net.orbismc.omcapi.object.mcmmo.SkillsContext;
+import net.orbismc.omcapi.util.EndpointUtils;
 import net.orbismc.omcapi.util.JSONUtil;
-import org.bukkit.Bukkit;
+import net.orbismc.omcapi.util.UUIDUtil;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 public class SkillsEndpoint extends PostEndpoint<SkillsContext> {
 
+    private final McMMOManager mcMMOManager;
+    private final PlayerDirectoryManager playerDirectoryManager;
+    private final WorldAccessManager worldAccessManager;
+
+    public SkillsEndpoint(McMMOManager mcMMOManager, PlayerDirectoryManager playerDirectoryManager, WorldAccessManager worldAccessManager) {
+        this.mcMMOManager = mcMMOManager;
+        this.playerDirectoryManager = playerDirectoryManager;
+        this.worldAccessManager = worldAccessManager;
+    }
+
     @Override
     public SkillsContext getObjectOrNull(JsonElement element) {
         JsonObject jsonObject = JSONUtil.getJsonElementAsJsonObjectOrNull(element);
@@ -40,130 +63,133 @@ public class SkillsEndpoint extends PostEndpoint<SkillsContext> {
         return new SkillsContext(player, includeAllSkills);
     }
 
+    /**
+     * Queues the mcMMO reads of the whole batch, online players on their own scheduler and offline players on the global
+     * region, where the reads for each run together in one task
+     */
     @Override
-    public JsonElement getJsonElement(SkillsContext context) {
-        JsonObject skillsObject = new JsonObject();
-
-        // Get the player either by name or UUID
-        OfflinePlayer offlinePlayer;
-        if (context.isUUID()) {
-            try {
-                UUID uuid = UUID.fromString(context.getPlayerIdentifier());
-                offlinePlayer = Bukkit.getOfflinePlayer(uuid);
-            } catch (IllegalArgumentException e) {
-                throw new BadRequestResponse("Invalid UUID format");
-            }
-        } else {
-            offlinePlayer = Bukkit.getOfflinePlayer(context.getPlayerIdentifier());
-        }
-
-        // If player doesn't exist or has never played
-        if (!offlinePlayer.hasPlayedBefore()) {
-            throw new BadRequestResponse("Player not found or has never played");
-        }
-
-        // Add basic player info
-        skillsObject.addProperty("name", offlinePlayer.getName());
-        skillsObject.addProperty("uuid", offlinePlayer.getUniqueId().toString());
-
-        // Get mcMMO data using reflection to avoid direct dependencies
-        try {
-            // Get the mcMMO API classes
-            Class<?> skillAPIClass = Class.forName("com.gmail.nossr50.api.SkillAPI");
-            Class<?> userManagerClass = Class.forName("com.gmail.nossr50.util.player.UserManager");
-            Class<?> primarySkillTypeClass = Class.forName("com.gmail.nossr50.datatypes.skills.PrimarySkillType");
-
-            // Get the mcMMO player
-            Object mcMMOPlayer = userManagerClass.getMethod("getOfflinePlayer", OfflinePlayer.class)
-                    .invoke(null, offlinePlayer);
-
-            // If mcMMO player doesn't exist
-            if (mcMMOPlayer == null) {
-                skillsObject.addProperty("has_mcmmo_data", false);
-                return skillsObject;
-            }
-
-            skillsObject.addProperty("has_mcmmo_data", true);
-
-            // Add power level
-            int powerLevel = (int) mcMMOPlayer.getClass().getMethod("getPowerLevel").invoke(mcMMOPlayer);
-            skillsObject.addProperty("power_level", powerLevel);
-
-            // Add skill data
-            JsonObject skillsData = new JsonObject();
-
-            // Get all skills
-            List<String> allSkills;
-            if (context.shouldIncludeAllSkills()) {
-                allSkills = (List<String>) skillAPIClass.getMethod("getSkills").invoke(null);
+    protected CompletableFuture<Void> prepare(List<SkillsContext> contexts, FieldSelector fields) {
+        McMMOManager.Hooks hooks = mcMMOManager.getHooks();
+        List<CompletableFuture<SkillData>> reads = new ArrayList<>();
+
+        for (SkillsContext context : contexts) {
+            if (context == null) continue;
+
+            // Get the player either by name or UUID, from local data only
+            OfflinePlayer offlinePlayer;
+            UUID uuid = UUIDUtil.parseOrNull(context.getPlayerIdentifier());
+            if (uuid != null) {
+                offlinePlayer = playerDirectoryManager.getOfflinePlayer(uuid);
             } else {
-                allSkills = (List<String>) skillAPIClass.getMethod("getNonChildSkills").invoke(null);
+                offlinePlayer = playerDirectoryManager.getOfflinePlayer(context.getPlayerIdentifier());
             }
 
-            // Add each skill's data
-            for (String skillName : allSkills) {
-                Object skillType = Enum.valueOf(
-                        (Class<Enum>) primarySkillTypeClass,
-                        skillName);
+            if (hooks == null || offlinePlayer == null || !offlinePlayer.hasPlayedBefore()) {
+                context.prepare(offlinePlayer, null);
+                continue;
+            }
 
-                JsonObject skillObject = new JsonObject();
+            List<String> skills = context.shouldIncludeAllSkills() ? hooks.allSkills() : hooks.nonChildSkills();
+            WorldAccessManager.Read<SkillData> skillsRead = () -> readSkills(hooks, offlinePlayer, skills);
+            Player online = offlinePlayer.getPlayer();
+            CompletableFuture<SkillData> read = online != null ? worldAccessManager.submit(online, skillsRead) : worldAccessManager.submit(skillsRead);
+            context.prepare(offlinePlayer, read);
+            reads.add(read);
+        }
 
-                int skillLevel = (int) mcMMOPlayer.getClass()
-                        .getMethod("getSkillLevel", primarySkillTypeClass)
-                        .invoke(mcMMOPlayer, skillType);
+        if (reads.isEmpty()) return CompletableFuture.completedFuture(null);
 
-                int skillXp = (int) mcMMOPlayer.getClass()
-                        .getMethod("getSkillXpLevel", primarySkillTypeClass)
-                        .invoke(mcMMOPlayer, skillType);
+        // Failed reads are reported per player when writing, and cancelling the batch cancels reads that have not run yet
+        CompletableFuture<Void> all = CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).handle((result, e) -> null);
+        all.whenComplete((result, e) -> {
+            if (e != null) reads.forEach(read -> read.cancel(true));
+        });
 
-                int xpToNextLevel = (int) mcMMOPlayer.getClass()
-                        .getMethod("getXpToLevel", primarySkillTypeClass)
-                        .invoke(mcMMOPlayer, skillType);
+        return all;
+    }
 
-                skillObject.addProperty("level", skillLevel);
-                skillObject.addProperty("xp", skillXp);
-                skillObject.addProperty("xp_to_next_level", xpToNextLevel);
+    @Override
+    public JsonElement getJsonElement(SkillsContext context) {
+        return toJsonElement(context);
+    }
 
-                skillsData.add(skillName, skillObject);
-            }
+    @Override
+    public void writeJson(JsonGenerator generator, SkillsContext context, FieldSelector fields) throws IOException {
+        OfflinePlayer offlinePlayer = context.getPlayer();
 
-            skillsObject.add("skills", skillsData);
+        // If player doesn't exist or has never played
+        if (offlinePlayer == null || !offlinePlayer.hasPlayedBefore()) {
+            throw new BadRequestResponse("Player not found or has never played");
+        }
 
-            // Add skill categories
-            JsonObject categoriesObject = new JsonObject();
+        generator.writeStartObject();
+        generator.writeStringField("name", offlinePlayer.getName());
+        generator.writeStringField("uuid", offlinePlayer.getUniqueId().toString());
 
-            // Combat skills
-            JsonArray combatSkills = new JsonArray();
-            List<String> combatSkillsList = (List<String>) skillAPIClass.getMethod("getCombatSkills").invoke(null);
-            for (String skill : combatSkillsList) {
-                combatSkills.add(skill);
-            }
-            categoriesObject.add("combat", combatSkills);
+        if (context.getSkillData() == null) {
+            generator.writeBooleanField("has_mcmmo_data", false);
+            generator.writeStringField("error", "mcMMO is not enabled");
+            generator.writeEndObject();
+            return;
+        }
 
-            // Gathering skills
-            JsonArray gatheringSkills = new JsonArray();
-            List<String> gatheringSkillsList = (List<String>) skillAPIClass.getMethod("getGatheringSkills").invoke(null);
-            for (String skill : gatheringSkillsList) {
-                gatheringSkills.add(skill);
-            }
-            categoriesObject.add("gathering", gatheringSkills);
+        // Everything was read on the server thread before writing, so a failing call cannot leave half a skills object behind
+        SkillData skillData;
+        try {
+            skillData = context.getSkillData().join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            String message = cause instanceof TimeoutException ? "timed out waiting for the server thread" : cause.getMessage();
+
+            generator.writeBooleanField("has_mcmmo_data", false);
+            generator.writeStringField("error", "Failed to retrieve mcMMO data: " + message);
+            generator.writeEndObject();
+            return;
+        }
 
-            // Misc skills
-            JsonArray miscSkills = new JsonArray();
-            List<String> miscSkillsList = (List<String>) skillAPIClass.getMethod("getMiscSkills").invoke(null);
-            for (String skill : miscSkillsList) {
-                miscSkills.add(skill);
+        generator.writeBooleanField("has_mcmmo_data", skillData != null);
+        if (skillData != null) {
+            List<String> skills = skillData.skills();
+            McMMOManager.Hooks hooks = skillData.hooks();
+            generator.writeNumberField("power_level", skillData.powerLevel());
+
+            generator.writeObjectFieldStart("skills");
+            for (int i = 0; i < skills.size(); i++) {
+                generator.writeObjectFieldStart(skills.get(i));
+                generator.writeNumberField("level", skillData.values()[i * 3]);
+                generator.writeNumberField("xp", skillData.values()[i * 3 + 1]);
+                generator.writeNumberField("xp_to_next_level", skillData.values()[i * 3 + 2]);
+                generator.writeEndObject();
             }
-            categoriesObject.add("misc", miscSkills);
+            generator.writeEndObject();
+
+            generator.writeObjectFieldStart("categories");
+            generator.writeFieldName("combat");
+            EndpointUtils.writeStringArray(generator, hooks.combatSkills());
+            generator.writeFieldName("gathering");
+            EndpointUtils.writeStringArray(generator, hooks.gatheringSkills());
+            generator.writeFieldName("misc");
+            EndpointUtils.writeStringArray(generator, hooks.miscSkills());
+            generator.writeEndObject();
+        }
 
-            skillsObject.add("categories", categoriesObject);
+        generator.writeEndObject();
+    }
 
-        } catch (Exception e) {
-            // If we encounter any error with mcMMO
-            skillsObject.addProperty("has_mcmmo_data", false);
-            skillsObject.addProperty("error", "Failed to retrieve mcMMO data: " + e.getMessage());
+    /**
+     * @return the player's levels, or null if mcMMO has no data loaded for them
+     */
+    private static SkillData readSkills(McMMOManager.Hooks hooks, OfflinePlayer offlinePlayer, List<String> skills) throws Throwable {
+        Object mcMMOPlayer = hooks.getPlayer(offlinePlayer);
+        if (mcMMOPlayer == null) return null;
+
+        int[] values = new int[skills.size() * 3];
+        for (int i = 0; i < skills.size(); i++) {
+            values[i * 3] = hooks.getSkillLevel(mcMMOPlayer, skills.get(i));
+            values[i * 3 + 1] = hooks.getSkillXpLevel(mcMMOPlayer, skills.get(i));
+            values[i * 3 + 2] = hooks.getXpToLevel(mcMMOPlayer, skills.get(i));
         }
 
-        return skillsObject;
+        return new SkillData(hooks, skills, hooks.getPowerLevel(mcMMOPlayer), values);
     }
-}
\ No newline at end of file
+}
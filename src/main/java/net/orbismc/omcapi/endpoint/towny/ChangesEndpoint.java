@@ -0,0 +1,50 @@
+package net.orbismc.omcapi.endpoint.towny;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import net.orbismc.omcapi.manager.ChangeFeedManager;
+import net.orbismc.omcapi.object.change.ChangeEntry;
+import net.orbismc.omcapi.object.change.ChangeSet;
+import net.orbismc.omcapi.util.JSONUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public class ChangesEndpoint {
+
+    private final ChangeFeedManager changeFeedManager;
+
+    public ChangesEndpoint(ChangeFeedManager changeFeedManager) {
+        this.changeFeedManager = changeFeedManager;
+    }
+
+    public void lookup(long since, OutputStream outputStream) throws IOException {
+        ChangeSet changeSet = changeFeedManager.getChangesSince(since);
+
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeNumberField("version", changeSet.getVersion());
+            generator.writeBooleanField("resync", changeSet.isResync());
+
+            generator.writeArrayFieldStart("changes");
+            for (ChangeEntry change : changeSet.getChanges()) {
+                generator.writeStartObject();
+                generator.writeNumberField("version", change.getVersion());
+                generator.writeStringField("type", change.getType().name().toLowerCase(Locale.ROOT));
+                generator.writeStringField("action", change.getAction().name().toLowerCase(Locale.ROOT));
+                generator.writeStringField("uuid", change.getUUID().toString());
+
+                generator.writeArrayFieldStart("fields");
+                for (String field : change.getFields()) {
+                    generator.writeString(field);
+                }
+                generator.writeEndArray();
+
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package net.orbismc.omcapi.endpoint.towny;
+
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+import net.orbismc.omcapi.object.snapshot.TownSnapshot;
+import net.orbismc.omcapi.util.ClaimEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves town claims in the binary format described by {@link ClaimEncoder}.
+ * Snapshots reuse a town's claim arrays until Towny reports a claim change, so an encoding stays cached for as long as
+ * the arrays it was made from are still the ones in the snapshot.
+ */
+public class ClaimsEndpoint implements SnapshotListener {
+
+    private final SnapshotManager snapshotManager;
+    private final Map<UUID, EncodedClaims> encodedClaims = new ConcurrentHashMap<>();
+    private volatile AllClaims allClaims;
+
+    public ClaimsEndpoint(SnapshotManager snapshotManager) {
+        this.snapshotManager = snapshotManager;
+    }
+
+    public byte[] lookup(TownSnapshot town) {
+        EncodedClaims encoded = encodedClaims.compute(town.getUUID(), (uuid, cached) ->
+                cached != null && cached.source == town.getTownBlocks() ? cached : new EncodedClaims(town.getTownBlocks(), ClaimEncoder.encode(town.getTownBlocks())));
+
+        return encoded.bytes;
+    }
+
+    /**
+     * @return the claims of every town, built once per snapshot
+     */
+    public byte[] lookupAll() {
+        DataSnapshot snapshot = snapshotManager.getSnapshot();
+        AllClaims cached = allClaims;
+        if (cached != null && cached.snapshot == snapshot) return cached.bytes;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ClaimEncoder.writeVarInt(out, snapshot.getTowns().size());
+        for (TownSnapshot town : snapshot.getTowns()) {
+            ClaimEncoder.writeUUID(out, town.getUUID());
+            out.writeBytes(lookup(town));
+        }
+
+        byte[] bytes = out.toByteArray();
+        allClaims = new AllClaims(snapshot, bytes);
+        return bytes;
+    }
+
+    @Override
+    public void onPublish(DataSnapshot previous, DataSnapshot current) {
+        encodedClaims.keySet().removeIf(uuid -> current.getTown(uuid) == null);
+    }
+
+    private record EncodedClaims(Map<String, int[]> source, byte[] bytes) {}
+
+    private record AllClaims(DataSnapshot snapshot, byte[] bytes) {}
+}
@@ -1,85 +1,150 @@
 package net.orbismc.omcapi.endpoint.towny;
 
-import com.google.gson.JsonArray;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.palmergames.bukkit.towny.TownyAPI;
-import com.palmergames.bukkit.towny.TownyEconomyHandler;
-import com.palmergames.bukkit.towny.object.Nation;
-import com.palmergames.bukkit.towny.object.Resident;
-import com.palmergames.bukkit.towny.permissions.TownyPerms;
 import io.javalin.http.BadRequestResponse;
+import net.orbismc.omcapi.manager.BalanceManager;
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.object.endpoint.FieldSelector;
 import net.orbismc.omcapi.object.endpoint.PostEndpoint;
+import net.orbismc.omcapi.object.snapshot.NationSnapshot;
 import net.orbismc.omcapi.util.EndpointUtils;
 import net.orbismc.omcapi.util.JSONUtil;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
-public class NationsEndpoint extends PostEndpoint<Nation> {
+public class NationsEndpoint extends PostEndpoint<NationSnapshot> {
+
+    private final SnapshotManager snapshotManager;
+    private final BalanceManager balanceManager;
+
+    public NationsEndpoint(SnapshotManager snapshotManager, BalanceManager balanceManager) {
+        this.snapshotManager = snapshotManager;
+        this.balanceManager = balanceManager;
+    }
 
     @Override
-    public Nation getObjectOrNull(JsonElement element) {
+    public NationSnapshot getObjectOrNull(JsonElement element) {
         String string = JSONUtil.getJsonElementAsStringOrNull(element);
         if (string == null) throw new BadRequestResponse("Your query contains a value that is not a string");
 
-        Nation nation;
-        try {
-            nation = TownyAPI.getInstance().getNation(UUID.fromString(string));
-        } catch (IllegalArgumentException e) {
-            nation = TownyAPI.getInstance().getNation(string);
+        return getNation(string);
+    }
+
+    /**
+     * @param identifier the UUID or name of the nation
+     */
+    public NationSnapshot getNation(String identifier) {
+        return snapshotManager.getSnapshot().resolveNation(identifier);
+    }
+
+    @Override
+    public List<NationSnapshot> getObjects(List<JsonElement> elements) {
+        return snapshotManager.getSnapshot().resolveNations(getQueryStrings(elements));
+    }
+
+    @Override
+    protected CompletableFuture<Void> prepare(List<NationSnapshot> nations, FieldSelector fields) {
+        if (!fields.nested("stats").includes("balance")) return CompletableFuture.completedFuture(null);
+
+        List<UUID> uuids = new ArrayList<>(nations.size());
+        for (NationSnapshot nation : nations) {
+            if (nation != null) uuids.add(nation.getUUID());
         }
 
-        return nation;
+        return balanceManager.getNations().loadAll(uuids);
+    }
+
+    @Override
+    public JsonElement getJsonElement(NationSnapshot nation) {
+        return toJsonElement(nation);
     }
 
     @Override
-    public JsonElement getJsonElement(Nation nation) {
-        JsonObject nationObject = new JsonObject();
-
-        nationObject.addProperty("name", nation.getName());
-        nationObject.addProperty("uuid", nation.getUUID().toString());
-        nationObject.addProperty("board", nation.getBoard().isEmpty() ? null : nation.getBoard());
-  
-
-        nationObject.add("king", EndpointUtils.getResidentJsonObject(nation.getKing()));
-        nationObject.add("capital", EndpointUtils.getTownJsonObject(nation.getCapital()));
-
-        JsonObject timestampsObject = new JsonObject();
-        timestampsObject.addProperty("registered", nation.getRegistered());
-        nationObject.add("timestamps", timestampsObject);
-
-        JsonObject statusObject = new JsonObject();
-        statusObject.addProperty("isPublic", nation.isPublic());
-        statusObject.addProperty("isOpen", nation.isOpen());
-        statusObject.addProperty("isNeutral", nation.isNeutral());
-        nationObject.add("status", statusObject);
-
-        JsonObject statsObject = new JsonObject();
-        statsObject.addProperty("numTownBlocks", nation.getNumTownblocks());
-        statsObject.addProperty("numResidents", nation.getNumResidents());
-        statsObject.addProperty("numTowns", nation.getNumTowns());
-        statsObject.addProperty("numAllies", nation.getAllies().size());
-        statsObject.addProperty("numEnemies", nation.getEnemies().size());
-        statsObject.addProperty("balance", TownyEconomyHandler.isActive() ? nation.getAccount().getHoldingBalance() : 0);
-        nationObject.add("stats", statsObject);
-
-        nationObject.add("coordinates", EndpointUtils.getCoordinatesObject(nation.getSpawnOrNull()));
-        nationObject.add("residents", EndpointUtils.getResidentArray(nation.getResidents()));
-        nationObject.add("towns", EndpointUtils.getTownArray(nation.getTowns()));
-        nationObject.add("allies", EndpointUtils.getNationArray(nation.getAllies()));
-        nationObject.add("enemies", EndpointUtils.getNationArray(nation.getEnemies()));
-        nationObject.add("sanctioned", EndpointUtils.getTownArray(nation.getSanctionedTowns()));
-
-        JsonObject ranksObject = new JsonObject();
-        for (String rank : TownyPerms.getNationRanks()) {
-            JsonArray rankArray = new JsonArray();
-            for (Resident resident : EndpointUtils.getNationRank(nation, rank)) {
-                rankArray.add(resident.getName());
+    public void writeJson(JsonGenerator generator, NationSnapshot nation, FieldSelector fields) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeStringField("name", nation.getName());
+        generator.writeStringField("uuid", nation.getUUID().toString());
+        if (fields.includes("board")) generator.writeStringField("board", nation.getBoard());
+
+        if (fields.includes("king")) {
+            generator.writeFieldName("king");
+            EndpointUtils.writeNamedObject(generator, nation.getKing());
+        }
+        if (fields.includes("capital")) {
+            generator.writeFieldName("capital");
+            EndpointUtils.writeNamedObject(generator, nation.getCapital());
+        }
+
+        if (fields.includes("timestamps")) {
+            FieldSelector timestamps = fields.nested("timestamps");
+            generator.writeObjectFieldStart("timestamps");
+            if (timestamps.includes("registered")) generator.writeNumberField("registered", nation.getRegistered());
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("status")) {
+            FieldSelector status = fields.nested("status");
+            generator.writeObjectFieldStart("status");
+            if (status.includes("isPublic")) generator.writeBooleanField("isPublic", nation.isPublic());
+            if (status.includes("isOpen")) generator.writeBooleanField("isOpen", nation.isOpen());
+            if (status.includes("isNeutral")) generator.writeBooleanField("isNeutral", nation.isNeutral());
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("stats")) {
+            FieldSelector stats = fields.nested("stats");
+            generator.writeObjectFieldStart("stats");
+            if (stats.includes("numTownBlocks")) generator.writeNumberField("numTownBlocks", nation.getNumTownBlocks());
+            if (stats.includes("numResidents")) generator.writeNumberField("numResidents", nation.getNumResidents());
+            if (stats.includes("numTowns")) generator.writeNumberField("numTowns", nation.getNumTowns());
+            if (stats.includes("numAllies")) generator.writeNumberField("numAllies", nation.getAllies().size());
+            if (stats.includes("numEnemies")) generator.writeNumberField("numEnemies", nation.getEnemies().size());
+            if (stats.includes("balance")) EndpointUtils.writeBalanceFields(generator, balanceManager, balanceManager.getNations(), nation.getUUID());
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("coordinates")) {
+            FieldSelector coordinates = fields.nested("coordinates");
+            generator.writeObjectFieldStart("coordinates");
+            if (coordinates.includes("spawn")) {
+                generator.writeFieldName("spawn");
+                EndpointUtils.writeSpawnObject(generator, nation.getSpawn());
             }
-            ranksObject.add(rank, rankArray);
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("residents")) {
+            generator.writeFieldName("residents");
+            EndpointUtils.writeNamedArray(generator, nation.getResidents());
+        }
+        if (fields.includes("towns")) {
+            generator.writeFieldName("towns");
+            EndpointUtils.writeNamedArray(generator, nation.getTowns());
+        }
+        if (fields.includes("allies")) {
+            generator.writeFieldName("allies");
+            EndpointUtils.writeNamedArray(generator, nation.getAllies());
+        }
+        if (fields.includes("enemies")) {
+            generator.writeFieldName("enemies");
+            EndpointUtils.writeNamedArray(generator, nation.getEnemies());
+        }
+        if (fields.includes("sanctioned")) {
+            generator.writeFieldName("sanctioned");
+            EndpointUtils.writeNamedArray(generator, nation.getSanctioned());
+        }
+
+        if (fields.includes("ranks")) {
+            generator.writeFieldName("ranks");
+            EndpointUtils.writeRanksObject(generator, nation.getRanks());
         }
-        nationObject.add("ranks", ranksObject);
 
-        return nationObject;
+        generator.writeEndObject();
     }
 }
@@ -1,95 +1,136 @@
 package net.orbismc.omcapi.endpoint.towny;
 
 
-import com.google.gson.JsonArray;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.palmergames.bukkit.towny.TownyAPI;
-import com.palmergames.bukkit.towny.object.Resident;
 import io.javalin.http.BadRequestResponse;
+import net.orbismc.omcapi.manager.BalanceManager;
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.object.endpoint.FieldSelector;
 import net.orbismc.omcapi.object.endpoint.PostEndpoint;
+import net.orbismc.omcapi.object.snapshot.ResidentSnapshot;
 import net.orbismc.omcapi.util.EndpointUtils;
 import net.orbismc.omcapi.util.JSONUtil;
-import net.milkbowl.vault.economy.Economy;
-import org.bukkit.Bukkit;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
-public class PlayersEndpoint extends PostEndpoint<Resident> {
+public class PlayersEndpoint extends PostEndpoint<ResidentSnapshot> {
 
-    private static Economy economy = null;
-    public PlayersEndpoint(Economy economy) {
-        PlayersEndpoint.economy = economy;
+    private final SnapshotManager snapshotManager;
+    private final BalanceManager balanceManager;
+
+    public PlayersEndpoint(SnapshotManager snapshotManager, BalanceManager balanceManager) {
+        this.snapshotManager = snapshotManager;
+        this.balanceManager = balanceManager;
     }
 
     @Override
-    public Resident getObjectOrNull(JsonElement element) {
+    public ResidentSnapshot getObjectOrNull(JsonElement element) {
         String string = JSONUtil.getJsonElementAsStringOrNull(element);
         if (string == null) throw new BadRequestResponse("Your query contains a value that is not a string");
 
-        Resident resident;
-        try {
-            resident = TownyAPI.getInstance().getResident(UUID.fromString(string));
-        } catch (IllegalArgumentException e) {
-            resident = TownyAPI.getInstance().getResident(string);
+        return snapshotManager.getSnapshot().resolveResident(string);
+    }
+
+    @Override
+    public List<ResidentSnapshot> getObjects(List<JsonElement> elements) {
+        return snapshotManager.getSnapshot().resolveResidents(getQueryStrings(elements));
+    }
+
+    @Override
+    protected CompletableFuture<Void> prepare(List<ResidentSnapshot> residents, FieldSelector fields) {
+        if (!fields.nested("stats").includes("balance")) return CompletableFuture.completedFuture(null);
+
+        List<UUID> uuids = new ArrayList<>(residents.size());
+        for (ResidentSnapshot resident : residents) {
+            if (resident != null) uuids.add(resident.getUUID());
         }
 
-        return resident;
+        return balanceManager.getPlayers().loadAll(uuids);
     }
 
     @Override
-    public JsonElement getJsonElement(Resident resident) {
-        JsonObject playerObject = new JsonObject();
-
-        playerObject.addProperty("name", resident.getName());
-        playerObject.addProperty("uuid", resident.getUUID().toString());
-
-        playerObject.addProperty("title", resident.getTitle().isEmpty() ? null : resident.getTitle());
-        playerObject.addProperty("surname", resident.getSurname().isEmpty() ? null : resident.getSurname());
-        playerObject.addProperty("formattedName", resident.getFormattedName());
-        playerObject.addProperty("about", resident.getAbout().isEmpty() ? null : resident.getAbout());
-        playerObject.add("town", EndpointUtils.getTownJsonObject(resident.getTownOrNull()));
-        playerObject.add("nation", EndpointUtils.getNationJsonObject(resident.getNationOrNull()));
-
-        JsonObject timestampsObject = new JsonObject();
-        timestampsObject.addProperty("registered", resident.getRegistered());
-        timestampsObject.addProperty("joinedTownAt", resident.hasTown() ? resident.getJoinedTownAt() : null);
-        timestampsObject.addProperty("lastOnline", resident.getLastOnline() != 0 ? resident.getLastOnline() : null);
-        playerObject.add("timestamps", timestampsObject);
-
-        JsonObject statusObject = new JsonObject();
-        statusObject.addProperty("isOnline", resident.isOnline());
-        statusObject.addProperty("isNPC", resident.isNPC());
-        statusObject.addProperty("isMayor", resident.isMayor());
-        statusObject.addProperty("isKing", resident.isKing());
-        statusObject.addProperty("hasTown", resident.hasTown());
-        statusObject.addProperty("hasNation", resident.hasNation());
-        playerObject.add("status", statusObject);
-
-        JsonObject statsObject = new JsonObject();
-        statsObject.addProperty("balance", resident.getPlayer() != null ? economy.getBalance(resident.getPlayer()) : economy.getBalance(Bukkit.getOfflinePlayer(resident.getUUID())));
-        statsObject.addProperty("numFriends", resident.getFriends().size());
-        playerObject.add("stats", statsObject);
-
-        playerObject.add("perms", EndpointUtils.getPermsObject(resident.getPermissions()));
-
-        JsonObject ranksObject = new JsonObject();
-        ranksObject.add("townRanks", getRankArray(resident.getTownRanks()));
-        ranksObject.add("nationRanks", getRankArray(resident.getNationRanks()));
-        playerObject.add("ranks", ranksObject);
-
-        playerObject.add("friends", EndpointUtils.getResidentArray(resident.getFriends()));
-
-        return playerObject;
+    public JsonElement getJsonElement(ResidentSnapshot resident) {
+        return toJsonElement(resident);
     }
 
-    private JsonArray getRankArray(List<String> ranks) {
-        JsonArray jsonArray = new JsonArray();
+    @Override
+    public void writeJson(JsonGenerator generator, ResidentSnapshot resident, FieldSelector fields) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeStringField("name", resident.getName());
+        generator.writeStringField("uuid", resident.getUUID().toString());
+
+        if (fields.includes("title")) generator.writeStringField("title", resident.getTitle());
+        if (fields.includes("surname")) generator.writeStringField("surname", resident.getSurname());
+        if (fields.includes("formattedName")) generator.writeStringField("formattedName", resident.getFormattedName());
+        if (fields.includes("about")) generator.writeStringField("about", resident.getAbout());
+        if (fields.includes("town")) {
+            generator.writeFieldName("town");
+            EndpointUtils.writeNamedObject(generator, resident.getTown());
+        }
+        if (fields.includes("nation")) {
+            generator.writeFieldName("nation");
+            EndpointUtils.writeNamedObject(generator, resident.getNation());
+        }
+
+        if (fields.includes("timestamps")) {
+            FieldSelector timestamps = fields.nested("timestamps");
+            generator.writeObjectFieldStart("timestamps");
+            if (timestamps.includes("registered")) generator.writeNumberField("registered", resident.getRegistered());
+            if (timestamps.includes("joinedTownAt")) JSONUtil.writeNumberFieldOrNull(generator, "joinedTownAt", resident.getJoinedTownAt());
+            if (timestamps.includes("lastOnline")) JSONUtil.writeNumberFieldOrNull(generator, "lastOnline", resident.getLastOnline());
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("status")) {
+            FieldSelector status = fields.nested("status");
+            generator.writeObjectFieldStart("status");
+            if (status.includes("isOnline")) generator.writeBooleanField("isOnline", resident.isOnline());
+            if (status.includes("isNPC")) generator.writeBooleanField("isNPC", resident.isNPC());
+            if (status.includes("isMayor")) generator.writeBooleanField("isMayor", resident.isMayor());
+            if (status.includes("isKing")) generator.writeBooleanField("isKing", resident.isKing());
+            if (status.includes("hasTown")) generator.writeBooleanField("hasTown", resident.hasTown());
+            if (status.includes("hasNation")) generator.writeBooleanField("hasNation", resident.hasNation());
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("stats")) {
+            FieldSelector stats = fields.nested("stats");
+            generator.writeObjectFieldStart("stats");
+            // Balances live in Vault rather than Towny, so they come from the balance cache instead of the snapshot
+            if (stats.includes("balance")) EndpointUtils.writeBalanceFields(generator, balanceManager, balanceManager.getPlayers(), resident.getUUID());
+            if (stats.includes("numFriends")) generator.writeNumberField("numFriends", resident.getFriends().size());
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("perms")) {
+            generator.writeFieldName("perms");
+            EndpointUtils.writePermsObject(generator, resident.getPerms());
+        }
+
+        if (fields.includes("ranks")) {
+            FieldSelector ranks = fields.nested("ranks");
+            generator.writeObjectFieldStart("ranks");
+            if (ranks.includes("townRanks")) {
+                generator.writeFieldName("townRanks");
+                EndpointUtils.writeStringArray(generator, resident.getTownRanks());
+            }
+            if (ranks.includes("nationRanks")) {
+                generator.writeFieldName("nationRanks");
+                EndpointUtils.writeStringArray(generator, resident.getNationRanks());
+            }
+            generator.writeEndObject();
+        }
 
-        for (String rank : ranks) {
-            jsonArray.add(rank);
+        if (fields.includes("friends")) {
+            generator.writeFieldName("friends");
+            EndpointUtils.writeNamedArray(generator, resident.getFriends());
         }
 
-        return jsonArray;
+        generator.writeEndObject();
     }
 }
@@ -0,0 +1,110 @@
+package net.orbismc.omcapi.endpoint.towny;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.javalin.http.NotFoundResponse;
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.manager.TownyLeaderboardManager;
+import net.orbismc.omcapi.object.leaderboard.EntityLeaderboard;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import net.orbismc.omcapi.util.JSONUtil;
+import net.orbismc.omcapi.util.RankedSet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+
+public class RankingsEndpoint {
+
+    private final SnapshotManager snapshotManager;
+    private final TownyLeaderboardManager townyLeaderboardManager;
+
+    public RankingsEndpoint(SnapshotManager snapshotManager, TownyLeaderboardManager townyLeaderboardManager) {
+        this.snapshotManager = snapshotManager;
+        this.townyLeaderboardManager = townyLeaderboardManager;
+    }
+
+    /**
+     * Writes the entries ranked from offset onwards, ranks starting at 1
+     */
+    public void lookup(String entity, String metric, int offset, int limit, OutputStream outputStream) throws IOException {
+        EntityLeaderboard<?> leaderboard = getLeaderboard(entity, metric);
+        DataSnapshot snapshot = snapshotManager.getSnapshot();
+
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("entity", entity);
+            generator.writeStringField("metric", leaderboard.getMetric());
+            generator.writeNumberField("numEntries", leaderboard.size());
+
+            generator.writeArrayFieldStart("entries");
+            int rank = offset + 1;
+            for (RankedSet.Entry<UUID> entry : leaderboard.getRange(offset, limit)) {
+                NamedObject object = getObject(snapshot, entity, entry.key());
+
+                generator.writeStartObject();
+                generator.writeNumberField("rank", rank++);
+                generator.writeStringField("name", object == null ? null : object.getName());
+                generator.writeStringField("uuid", entry.key().toString());
+                writeValue(generator, leaderboard, entry.score());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * @param identifier the UUID or name of the town, nation or player
+     */
+    public void lookupRank(String entity, String metric, String identifier, OutputStream outputStream) throws IOException {
+        EntityLeaderboard<?> leaderboard = getLeaderboard(entity, metric);
+
+        NamedObject object = resolve(snapshotManager.getSnapshot(), entity, identifier);
+        if (object == null) throw new NotFoundResponse(identifier + " does not exist");
+
+        int rank = leaderboard.rankOf(object.getUUID());
+        Double value = leaderboard.getValue(object.getUUID());
+        if (rank == -1 || value == null) throw new NotFoundResponse(object.getName() + " is not ranked yet");
+
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("entity", entity);
+            generator.writeStringField("metric", leaderboard.getMetric());
+            generator.writeStringField("name", object.getName());
+            generator.writeStringField("uuid", object.getUUID().toString());
+            generator.writeNumberField("rank", rank + 1);
+            writeValue(generator, leaderboard, value);
+            generator.writeEndObject();
+        }
+    }
+
+    private EntityLeaderboard<?> getLeaderboard(String entity, String metric) {
+        EntityLeaderboard<?> leaderboard = townyLeaderboardManager.getLeaderboard(entity, metric);
+        if (leaderboard == null) throw new NotFoundResponse("Unknown leaderboard " + entity + "/" + metric);
+
+        return leaderboard;
+    }
+
+    private static void writeValue(JsonGenerator generator, EntityLeaderboard<?> leaderboard, double value) throws IOException {
+        if (leaderboard.isIntegral()) generator.writeNumberField("value", (long) value);
+        else generator.writeNumberField("value", value);
+    }
+
+    private static NamedObject getObject(DataSnapshot snapshot, String entity, UUID uuid) {
+        return switch (entity) {
+            case TownyLeaderboardManager.TOWNS -> snapshot.getTown(uuid);
+            case TownyLeaderboardManager.NATIONS -> snapshot.getNation(uuid);
+            default -> snapshot.getResident(uuid);
+        };
+    }
+
+    private static NamedObject resolve(DataSnapshot snapshot, String entity, String identifier) {
+        return switch (entity) {
+            case TownyLeaderboardManager.TOWNS -> snapshot.resolveTown(identifier);
+            case TownyLeaderboardManager.NATIONS -> snapshot.resolveNation(identifier);
+            default -> snapshot.resolveResident(identifier);
+        };
+    }
+}
@@ -1,112 +1,262 @@
 package net.orbismc.omcapi.endpoint.towny;
 
-import com.google.gson.JsonArray;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.palmergames.bukkit.towny.TownyAPI;
-import com.palmergames.bukkit.towny.TownyEconomyHandler;
-import com.palmergames.bukkit.towny.object.Resident;
-import com.palmergames.bukkit.towny.object.Town;
-import com.palmergames.bukkit.towny.object.TownBlock;
-import com.palmergames.bukkit.towny.permissions.TownyPerms;
 import io.javalin.http.BadRequestResponse;
+import net.orbismc.omcapi.manager.BalanceManager;
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.object.endpoint.FieldSelector;
+import net.orbismc.omcapi.object.endpoint.PageRequest;
 import net.orbismc.omcapi.object.endpoint.PostEndpoint;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.TownSnapshot;
 import net.orbismc.omcapi.util.EndpointUtils;
 import net.orbismc.omcapi.util.JSONUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
-public class TownsEndpoint extends PostEndpoint<Town> {
+public class TownsEndpoint extends PostEndpoint<TownSnapshot> {
+
+    private final SnapshotManager snapshotManager;
+    private final BalanceManager balanceManager;
+
+    public TownsEndpoint(SnapshotManager snapshotManager, BalanceManager balanceManager) {
+        this.snapshotManager = snapshotManager;
+        this.balanceManager = balanceManager;
+    }
 
     @Override
-    public Town getObjectOrNull(JsonElement element) {
+    public TownSnapshot getObjectOrNull(JsonElement element) {
         String string = JSONUtil.getJsonElementAsStringOrNull(element);
         if (string == null) throw new BadRequestResponse("Your query contains a value that is not a string");
 
-        Town town;
-        try {
-            town = TownyAPI.getInstance().getTown(UUID.fromString(string));
-        } catch (IllegalArgumentException e) {
-            town = TownyAPI.getInstance().getTown(string);
+        return getTown(string);
+    }
+
+    /**
+     * @param identifier the UUID or name of the town
+     */
+    public TownSnapshot getTown(String identifier) {
+        return snapshotManager.getSnapshot().resolveTown(identifier);
+    }
+
+    @Override
+    public List<TownSnapshot> getObjects(List<JsonElement> elements) {
+        return snapshotManager.getSnapshot().resolveTowns(getQueryStrings(elements));
+    }
+
+    @Override
+    protected CompletableFuture<Void> prepare(List<TownSnapshot> towns, FieldSelector fields) {
+        if (!fields.nested("stats").includes("balance")) return CompletableFuture.completedFuture(null);
+
+        List<UUID> uuids = new ArrayList<>(towns.size());
+        for (TownSnapshot town : towns) {
+            if (town != null) uuids.add(town.getUUID());
         }
 
-        return town;
+        return balanceManager.getTowns().loadAll(uuids);
     }
 
     @Override
-    public JsonElement getJsonElement(Town town) {
-        JsonObject townObject = new JsonObject();
-
-        townObject.addProperty("name", town.getName());
-        townObject.addProperty("uuid", town.getUUID().toString());
-        townObject.addProperty("board", town.getBoard().isEmpty() ? null : town.getBoard());
-        townObject.addProperty("founder", town.getFounder());
-
-        townObject.add("mayor", EndpointUtils.getResidentJsonObject(town.getMayor()));
-        townObject.add("nation", EndpointUtils.getNationJsonObject(town.getNationOrNull()));
-
-        JsonObject timestampsObject = new JsonObject();
-        timestampsObject.addProperty("registered", town.getRegistered());
-        timestampsObject.addProperty("joinedNationAt", town.hasNation() ? town.getJoinedNationAt() : null);
-        timestampsObject.addProperty("ruinedAt", town.isRuined() ? town.getRuinedTime() : null);
-        townObject.add("timestamps", timestampsObject);
-
-        JsonObject statusObject = new JsonObject();
-        statusObject.addProperty("isPublic", town.isPublic());
-        statusObject.addProperty("isOpen", town.isOpen());
-        statusObject.addProperty("isNeutral", town.isNeutral());
-        statusObject.addProperty("isCapital", town.isCapital());
-        statusObject.addProperty("isOverClaimed", town.isOverClaimed());
-        statusObject.addProperty("isRuined", town.isRuined());
-        statusObject.addProperty("isForSale", town.isForSale());
-        statusObject.addProperty("hasNation", town.hasNation());
-        townObject.add("status", statusObject);
-
-        JsonObject statsObject = new JsonObject();
-        statsObject.addProperty("numTownBlocks", town.getNumTownBlocks());
-        statsObject.addProperty("maxTownBlocks", town.getMaxTownBlocks());
-        statsObject.addProperty("bonusBlocks", town.getBonusBlocks());
-        statsObject.addProperty("numResidents", town.getNumResidents());
-        statsObject.addProperty("numTrusted", town.getTrustedResidents().size());
-        statsObject.addProperty("numOutlaws", town.getOutlaws().size());
-        statsObject.addProperty("balance", TownyEconomyHandler.isActive() ? town.getAccount().getHoldingBalance() : 0);
-        statsObject.addProperty("forSalePrice", !town.isForSale() ? null : town.getForSalePrice());
-        townObject.add("stats", statsObject);
-
-        townObject.add("perms", EndpointUtils.getPermsObject(town.getPermissions()));
-
-        JsonObject coordinatesObject = EndpointUtils.getCoordinatesObject(town.getSpawnOrNull());
-        JsonArray homeBlockArray = new JsonArray();
-        TownBlock homeBlock = town.getHomeBlockOrNull();
-        homeBlockArray.add(homeBlock == null ? null : homeBlock.getX());
-        homeBlockArray.add(homeBlock == null ? null : homeBlock.getZ());
-        coordinatesObject.add("homeBlock", homeBlockArray);
-
-        JsonArray townBlocksArray = new JsonArray();
-        for (TownBlock townBlock : town.getTownBlocks()) {
-            JsonArray townBlockArray = new JsonArray();
-            townBlockArray.add(townBlock.getX());
-            townBlockArray.add(townBlock.getZ());
-
-            townBlocksArray.add(townBlockArray);
-        }
-        coordinatesObject.add("townBlocks", townBlocksArray);
-
-        townObject.add("coordinates", coordinatesObject);
-
-        townObject.add("residents", EndpointUtils.getResidentArray(town.getResidents()));
-        townObject.add("trusted", EndpointUtils.getResidentArray(town.getTrustedResidents().stream().toList()));
-        townObject.add("outlaws", EndpointUtils.getResidentArray(town.getOutlaws().stream().toList()));
-
-        JsonObject ranksObject = new JsonObject();
-        for (String rank : TownyPerms.getTownRanks()) {
-            JsonArray rankArray = new JsonArray();
-            for (Resident resident : town.getRank(rank)) {
-                rankArray.add(resident.getName());
+    public JsonElement getJsonElement(TownSnapshot town) {
+        return toJsonElement(town);
+    }
+
+    @Override
+    public void writeJson(JsonGenerator generator, TownSnapshot town, FieldSelector fields) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeStringField("name", town.getName());
+        generator.writeStringField("uuid", town.getUUID().toString());
+        if (fields.includes("board")) generator.writeStringField("board", town.getBoard());
+        if (fields.includes("founder")) generator.writeStringField("founder", town.getFounder());
+
+        if (fields.includes("mayor")) {
+            generator.writeFieldName("mayor");
+            EndpointUtils.writeNamedObject(generator, town.getMayor());
+        }
+        if (fields.includes("nation")) {
+            generator.writeFieldName("nation");
+            EndpointUtils.writeNamedObject(generator, town.getNation());
+        }
+
+        if (fields.includes("timestamps")) {
+            FieldSelector timestamps = fields.nested("timestamps");
+            generator.writeObjectFieldStart("timestamps");
+            if (timestamps.includes("registered")) generator.writeNumberField("registered", town.getRegistered());
+            if (timestamps.includes("joinedNationAt")) JSONUtil.writeNumberFieldOrNull(generator, "joinedNationAt", town.getJoinedNationAt());
+            if (timestamps.includes("ruinedAt")) JSONUtil.writeNumberFieldOrNull(generator, "ruinedAt", town.getRuinedAt());
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("status")) {
+            FieldSelector status = fields.nested("status");
+            generator.writeObjectFieldStart("status");
+            if (status.includes("isPublic")) generator.writeBooleanField("isPublic", town.isPublic());
+            if (status.includes("isOpen")) generator.writeBooleanField("isOpen", town.isOpen());
+            if (status.includes("isNeutral")) generator.writeBooleanField("isNeutral", town.isNeutral());
+            if (status.includes("isCapital")) generator.writeBooleanField("isCapital", town.isCapital());
+            if (status.includes("isOverClaimed")) generator.writeBooleanField("isOverClaimed", town.isOverClaimed());
+            if (status.includes("isRuined")) generator.writeBooleanField("isRuined", town.isRuined());
+            if (status.includes("isForSale")) generator.writeBooleanField("isForSale", town.isForSale());
+            if (status.includes("hasNation")) generator.writeBooleanField("hasNation", town.hasNation());
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("stats")) {
+            FieldSelector stats = fields.nested("stats");
+            generator.writeObjectFieldStart("stats");
+            if (stats.includes("numTownBlocks")) generator.writeNumberField("numTownBlocks", town.getNumTownBlocks());
+            if (stats.includes("maxTownBlocks")) generator.writeNumberField("maxTownBlocks", town.getMaxTownBlocks());
+            if (stats.includes("bonusBlocks")) generator.writeNumberField("bonusBlocks", town.getBonusBlocks());
+            if (stats.includes("numResidents")) generator.writeNumberField("numResidents", town.getNumResidents());
+            if (stats.includes("numTrusted")) generator.writeNumberField("numTrusted", town.getTrusted().size());
+            if (stats.includes("numOutlaws")) generator.writeNumberField("numOutlaws", town.getOutlaws().size());
+            if (stats.includes("balance")) EndpointUtils.writeBalanceFields(generator, balanceManager, balanceManager.getTowns(), town.getUUID());
+            if (stats.includes("forSalePrice")) JSONUtil.writeNumberFieldOrNull(generator, "forSalePrice", town.getForSalePrice());
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("perms")) {
+            generator.writeFieldName("perms");
+            EndpointUtils.writePermsObject(generator, town.getPerms());
+        }
+
+        if (fields.includes("coordinates")) {
+            FieldSelector coordinates = fields.nested("coordinates");
+            generator.writeObjectFieldStart("coordinates");
+            if (coordinates.includes("spawn")) {
+                generator.writeFieldName("spawn");
+                EndpointUtils.writeSpawnObject(generator, town.getSpawn());
             }
-            ranksObject.add(rank, rankArray);
+
+            if (coordinates.includes("homeBlock")) {
+                generator.writeArrayFieldStart("homeBlock");
+                JSONUtil.writeNumberOrNull(generator, town.getHomeBlockX());
+                JSONUtil.writeNumberOrNull(generator, town.getHomeBlockZ());
+                generator.writeEndArray();
+            }
+
+            if (coordinates.includes("townBlocks")) {
+                generator.writeArrayFieldStart("townBlocks");
+                for (int[] coords : town.getTownBlocks().values()) {
+                    for (int i = 0; i < coords.length; i += 2) {
+                        generator.writeStartArray();
+                        generator.writeNumber(coords[i]);
+                        generator.writeNumber(coords[i + 1]);
+                        generator.writeEndArray();
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+
+        if (fields.includes("residents")) {
+            generator.writeFieldName("residents");
+            EndpointUtils.writeNamedArray(generator, town.getResidents());
+        }
+        if (fields.includes("trusted")) {
+            generator.writeFieldName("trusted");
+            EndpointUtils.writeNamedArray(generator, town.getTrusted());
+        }
+        if (fields.includes("outlaws")) {
+            generator.writeFieldName("outlaws");
+            EndpointUtils.writeNamedArray(generator, town.getOutlaws());
+        }
+
+        if (fields.includes("ranks")) {
+            generator.writeFieldName("ranks");
+            EndpointUtils.writeRanksObject(generator, town.getRanks());
+        }
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes a page of the town's townblocks, ordered by world and then by coordinates
+     */
+    public void writeTownBlocksPage(TownSnapshot town, PageRequest page, OutputStream outputStream) throws IOException {
+        String afterWorld = null;
+        long afterKey = 0;
+        if (page.getAfter() != null) {
+            int separator = page.getAfter().lastIndexOf(':');
+            if (separator == -1) throw new BadRequestResponse("Invalid cursor provided");
+
+            afterWorld = page.getAfter().substring(0, separator);
+            try {
+                afterKey = Long.parseLong(page.getAfter().substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new BadRequestResponse("Invalid cursor provided");
+            }
+        }
+
+        List<String> worlds = new ArrayList<>(town.getTownBlocks().keySet());
+        Collections.sort(worlds);
+
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("data");
+
+            String last = null;
+            boolean hasMore = false;
+            int written = 0;
+            outer:
+            for (String world : worlds) {
+                if (afterWorld != null && world.compareTo(afterWorld) < 0) continue;
+
+                long[] keys = getSortedKeys(town.getTownBlocks().get(world));
+                int start = world.equals(afterWorld) ? upperBound(keys, afterKey) : 0;
+
+                for (int i = start; i < keys.length; i++) {
+                    if (written == page.getLimit()) {
+                        hasMore = true;
+                        break outer;
+                    }
+
+                    generator.writeStartArray();
+                    generator.writeNumber((int) (keys[i] >> 32));
+                    generator.writeNumber((int) keys[i]);
+                    generator.writeEndArray();
+
+                    last = world + ":" + keys[i];
+                    written++;
+                }
+            }
+
+            generator.writeEndArray();
+            generator.writeStringField("next", hasMore ? PageRequest.encodeCursor(last) : null);
+            generator.writeEndObject();
+        }
+    }
+
+    private static long[] getSortedKeys(int[] coords) {
+        long[] keys = new long[coords.length / 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = DataSnapshot.townBlockKey(coords[i * 2], coords[i * 2 + 1]);
+        }
+
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * @return the index of the first key greater than the given key
+     */
+    private static int upperBound(long[] keys, long key) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) low = mid + 1;
+            else high = mid;
         }
-        townObject.add("ranks", ranksObject);
 
-        return townObject;
+        return low;
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,21 @@
 package net.orbismc.omcapi.endpoint.towny.list;
 
-import com.google.gson.JsonArray;
-import com.palmergames.bukkit.towny.TownyAPI;
-import net.orbismc.omcapi.object.endpoint.GetEndpoint;
-import net.orbismc.omcapi.util.EndpointUtils;
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.object.endpoint.ListEndpoint;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
 
-public class NationsListEndpoint extends GetEndpoint {
+import java.util.List;
 
-    @Override
-    public String lookup() {
-        return getJsonElement().toString();
+public class NationsListEndpoint extends ListEndpoint {
+
+    private final SnapshotManager snapshotManager;
+
+    public NationsListEndpoint(SnapshotManager snapshotManager) {
+        this.snapshotManager = snapshotManager;
     }
 
     @Override
-    public JsonArray getJsonElement() {
-        return EndpointUtils.getNationArray(TownyAPI.getInstance().getNations());
+    public List<? extends NamedObject> getObjects() {
+        return snapshotManager.getSnapshot().getNations();
     }
 }
@@ -1,19 +1,21 @@
 package net.orbismc.omcapi.endpoint.towny.list;
 
-import com.google.gson.JsonArray;
-import com.palmergames.bukkit.towny.TownyAPI;
-import net.orbismc.omcapi.object.endpoint.GetEndpoint;
-import net.orbismc.omcapi.util.EndpointUtils;
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.object.endpoint.ListEndpoint;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
 
-public class PlayersListEndpoint extends GetEndpoint {
+import java.util.List;
 
-    @Override
-    public String lookup() {
-        return getJsonElement().toString();
+public class PlayersListEndpoint extends ListEndpoint {
+
+    private final SnapshotManager snapshotManager;
+
+    public PlayersListEndpoint(SnapshotManager snapshotManager) {
+        this.snapshotManager = snapshotManager;
     }
 
     @Override
-    public JsonArray getJsonElement() {
-        return EndpointUtils.getResidentArray(TownyAPI.getInstance().getResidents());
+    public List<? extends NamedObject> getObjects() {
+        return snapshotManager.getSnapshot().getResidents();
     }
 }
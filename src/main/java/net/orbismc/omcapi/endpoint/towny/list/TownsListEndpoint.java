@@ -1,19 +1,21 @@
 package net.orbismc.omcapi.endpoint.towny.list;
 
-import com.google.gson.JsonArray;
-import com.palmergames.bukkit.towny.TownyAPI;
-import net.orbismc.omcapi.object.endpoint.GetEndpoint;
-import net.orbismc.omcapi.util.EndpointUtils;
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.object.endpoint.ListEndpoint;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
 
-public class TownsListEndpoint extends GetEndpoint {
+import java.util.List;
 
-    @Override
-    public String lookup() {
-        return getJsonElement().toString();
+public class TownsListEndpoint extends ListEndpoint {
+
+    private final SnapshotManager snapshotManager;
+
+    public TownsListEndpoint(SnapshotManager snapshotManager) {
+        this.snapshotManager = snapshotManager;
     }
 
     @Override
-    public JsonArray getJsonElement() {
-        return EndpointUtils.getTownArray(TownyAPI.getInstance().getTowns());
+    public List<? extends NamedObject> getObjects() {
+        return snapshotManager.getSnapshot().getTowns();
     }
 }
@@ -0,0 +1,50 @@
+package net.orbismc.omcapi.listener;
+
+import com.google.gson.JsonObject;
+import net.orbismc.omcapi.manager.PlayerDirectoryManager;
+import net.orbismc.omcapi.manager.PushManager;
+import net.orbismc.omcapi.manager.StatsManager;
+import net.orbismc.omcapi.object.push.PushTopic;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Publishes player presence on the push stream and keeps the player directory and online counts current
+ */
+public class PlayerListener implements Listener {
+
+    private final PushManager pushManager;
+    private final PlayerDirectoryManager playerDirectoryManager;
+    private final StatsManager statsManager;
+
+    public PlayerListener(PushManager pushManager, PlayerDirectoryManager playerDirectoryManager, StatsManager statsManager) {
+        this.pushManager = pushManager;
+        this.playerDirectoryManager = playerDirectoryManager;
+        this.statsManager = statsManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        playerDirectoryManager.add(event.getPlayer());
+        statsManager.onPlayerJoin(event.getPlayer());
+        pushManager.broadcast(PushTopic.PLAYER, "player_online", getPlayerData(event.getPlayer()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        statsManager.onPlayerQuit(event.getPlayer());
+        pushManager.broadcast(PushTopic.PLAYER, "player_offline", getPlayerData(event.getPlayer()));
+    }
+
+    private JsonObject getPlayerData(Player player) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("name", player.getName());
+        jsonObject.addProperty("uuid", player.getUniqueId().toString());
+
+        return jsonObject;
+    }
+}
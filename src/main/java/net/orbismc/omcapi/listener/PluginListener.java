@@ -0,0 +1,30 @@
+package net.orbismc.omcapi.listener;
+
+import net.orbismc.omcapi.manager.McMMOManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+
+/**
+ * Hooks optional integrations when their plugin is enabled after OMCAPI, and drops them when it is disabled
+ */
+public class PluginListener implements Listener {
+
+    private final McMMOManager mcMMOManager;
+
+    public PluginListener(McMMOManager mcMMOManager) {
+        this.mcMMOManager = mcMMOManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(PluginEnableEvent event) {
+        if (event.getPlugin().getName().equals(McMMOManager.PLUGIN_NAME)) mcMMOManager.hook();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        if (event.getPlugin().getName().equals(McMMOManager.PLUGIN_NAME)) mcMMOManager.unhook();
+    }
+}
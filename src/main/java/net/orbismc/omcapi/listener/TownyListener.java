@@ -0,0 +1,211 @@
+package net.orbismc.omcapi.listener;
+
+import com.google.gson.JsonObject;
+import com.palmergames.bukkit.towny.event.DeleteNationEvent;
+import com.palmergames.bukkit.towny.event.DeletePlayerEvent;
+import com.palmergames.bukkit.towny.event.DeleteTownEvent;
+import com.palmergames.bukkit.towny.event.NationAddTownEvent;
+import com.palmergames.bukkit.towny.event.NationRemoveTownEvent;
+import com.palmergames.bukkit.towny.event.NewNationEvent;
+import com.palmergames.bukkit.towny.event.NewResidentEvent;
+import com.palmergames.bukkit.towny.event.NewTownEvent;
+import com.palmergames.bukkit.towny.event.RenameNationEvent;
+import com.palmergames.bukkit.towny.event.RenameResidentEvent;
+import com.palmergames.bukkit.towny.event.RenameTownEvent;
+import com.palmergames.bukkit.towny.event.TownAddResidentEvent;
+import com.palmergames.bukkit.towny.event.TownClaimEvent;
+import com.palmergames.bukkit.towny.event.TownRemoveResidentEvent;
+import com.palmergames.bukkit.towny.event.TownUnclaimEvent;
+import com.palmergames.bukkit.towny.object.Nation;
+import com.palmergames.bukkit.towny.object.Resident;
+import com.palmergames.bukkit.towny.object.Town;
+import com.palmergames.bukkit.towny.object.WorldCoord;
+import net.orbismc.omcapi.manager.ChangeFeedManager;
+import net.orbismc.omcapi.manager.PushManager;
+import net.orbismc.omcapi.manager.SearchManager;
+import net.orbismc.omcapi.manager.SnapshotManager;
+import net.orbismc.omcapi.manager.StatsManager;
+import net.orbismc.omcapi.object.change.ChangeAction;
+import net.orbismc.omcapi.object.change.ChangeType;
+import net.orbismc.omcapi.object.push.PushTopic;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.UUID;
+
+/**
+ * Turns Towny events into entries in the change feed, events on the push stream, search index and server count
+ * updates, and tells the snapshot manager which claims changed
+ */
+public class TownyListener implements Listener {
+
+    private final ChangeFeedManager changeFeedManager;
+    private final PushManager pushManager;
+    private final SnapshotManager snapshotManager;
+    private final SearchManager searchManager;
+    private final StatsManager statsManager;
+
+    public TownyListener(ChangeFeedManager changeFeedManager, PushManager pushManager, SnapshotManager snapshotManager, SearchManager searchManager, StatsManager statsManager) {
+        this.changeFeedManager = changeFeedManager;
+        this.pushManager = pushManager;
+        this.snapshotManager = snapshotManager;
+        this.searchManager = searchManager;
+        this.statsManager = statsManager;
+    }
+
+    /**
+     * Records the change in the feed and has a snapshot capture in progress copy the object again before it is
+     * published, so the change is in the snapshot published with it
+     */
+    private void record(ChangeType type, ChangeAction action, UUID uuid, String... fields) {
+        snapshotManager.markChanged(type, uuid);
+        changeFeedManager.record(type, action, uuid, fields);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNewTown(NewTownEvent event) {
+        record(ChangeType.TOWN, ChangeAction.CREATED, event.getTown().getUUID());
+        searchManager.getTowns().put(event.getTown().getUUID(), event.getTown().getName());
+        statsManager.onTownCreated();
+        pushManager.broadcast(PushTopic.TOWN, "town_created", getNamedData(event.getTown().getName(), event.getTown().getUUID().toString()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeleteTown(DeleteTownEvent event) {
+        record(ChangeType.TOWN, ChangeAction.DELETED, event.getTownUUID());
+        searchManager.getTowns().remove(event.getTownUUID());
+        statsManager.onTownDeleted();
+        pushManager.broadcast(PushTopic.TOWN, "town_deleted", getNamedData(event.getTownName(), event.getTownUUID() == null ? null : event.getTownUUID().toString()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRenameTown(RenameTownEvent event) {
+        record(ChangeType.TOWN, ChangeAction.UPDATED, event.getTown().getUUID(), "name");
+        searchManager.getTowns().put(event.getTown().getUUID(), event.getTown().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownClaim(TownClaimEvent event) {
+        Town town = event.getTownBlock().getTownOrNull();
+        if (town == null) return;
+
+        recordClaimChange(town);
+        statsManager.onClaim();
+        pushManager.broadcast(PushTopic.TOWN, "town_claim", getClaimData(town, event.getTownBlock().getWorldCoord()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownUnclaim(TownUnclaimEvent event) {
+        Town town = event.getTown();
+        if (town == null) return;
+
+        recordClaimChange(town);
+        statsManager.onUnclaim();
+        pushManager.broadcast(PushTopic.TOWN, "town_unclaim", getClaimData(town, event.getWorldCoord()));
+    }
+
+    private void recordClaimChange(Town town) {
+        snapshotManager.markClaimsChanged(town.getUUID());
+        record(ChangeType.TOWN, ChangeAction.UPDATED, town.getUUID(), "coordinates.townBlocks", "stats.numTownBlocks");
+
+        Nation nation = town.getNationOrNull();
+        if (nation != null) record(ChangeType.NATION, ChangeAction.UPDATED, nation.getUUID(), "stats.numTownBlocks");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownAddResident(TownAddResidentEvent event) {
+        recordMembershipChange(event.getTown(), event.getResident());
+        statsManager.onResidentJoinedTown(event.getResident());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownRemoveResident(TownRemoveResidentEvent event) {
+        recordMembershipChange(event.getTown(), event.getResident());
+        statsManager.onResidentLeftTown(event.getResident());
+    }
+
+    private void recordMembershipChange(Town town, Resident resident) {
+        record(ChangeType.TOWN, ChangeAction.UPDATED, town.getUUID(), "residents", "stats.numResidents");
+        record(ChangeType.RESIDENT, ChangeAction.UPDATED, resident.getUUID(), "town", "nation", "status.hasTown", "status.hasNation", "timestamps.joinedTownAt");
+
+        Nation nation = town.getNationOrNull();
+        if (nation != null) record(ChangeType.NATION, ChangeAction.UPDATED, nation.getUUID(), "residents", "stats.numResidents");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNewNation(NewNationEvent event) {
+        record(ChangeType.NATION, ChangeAction.CREATED, event.getNation().getUUID());
+        searchManager.getNations().put(event.getNation().getUUID(), event.getNation().getName());
+        statsManager.onNationCreated();
+        pushManager.broadcast(PushTopic.NATION, "nation_created", getNamedData(event.getNation().getName(), event.getNation().getUUID().toString()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeleteNation(DeleteNationEvent event) {
+        record(ChangeType.NATION, ChangeAction.DELETED, event.getNationUUID());
+        searchManager.getNations().remove(event.getNationUUID());
+        statsManager.onNationDeleted();
+        pushManager.broadcast(PushTopic.NATION, "nation_deleted", getNamedData(event.getNationName(), event.getNationUUID() == null ? null : event.getNationUUID().toString()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRenameNation(RenameNationEvent event) {
+        record(ChangeType.NATION, ChangeAction.UPDATED, event.getNation().getUUID(), "name");
+        searchManager.getNations().put(event.getNation().getUUID(), event.getNation().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationAddTown(NationAddTownEvent event) {
+        recordNationMembershipChange(event.getNation(), event.getTown());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationRemoveTown(NationRemoveTownEvent event) {
+        recordNationMembershipChange(event.getNation(), event.getTown());
+    }
+
+    private void recordNationMembershipChange(Nation nation, Town town) {
+        record(ChangeType.NATION, ChangeAction.UPDATED, nation.getUUID(), "towns", "residents", "stats.numTowns", "stats.numResidents", "stats.numTownBlocks");
+        record(ChangeType.TOWN, ChangeAction.UPDATED, town.getUUID(), "nation", "status.hasNation", "timestamps.joinedNationAt");
+
+        for (Resident resident : town.getResidents()) {
+            record(ChangeType.RESIDENT, ChangeAction.UPDATED, resident.getUUID(), "nation", "status.hasNation");
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNewResident(NewResidentEvent event) {
+        statsManager.onResidentCreated();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRenameResident(RenameResidentEvent event) {
+        record(ChangeType.RESIDENT, ChangeAction.UPDATED, event.getResident().getUUID(), "name");
+        searchManager.getResidents().put(event.getResident().getUUID(), event.getResident().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeletePlayer(DeletePlayerEvent event) {
+        record(ChangeType.RESIDENT, ChangeAction.DELETED, event.getPlayerUUID());
+        searchManager.getResidents().remove(event.getPlayerUUID());
+    }
+
+    private JsonObject getNamedData(String name, String uuid) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("name", name);
+        jsonObject.addProperty("uuid", uuid);
+
+        return jsonObject;
+    }
+
+    private JsonObject getClaimData(Town town, WorldCoord worldCoord) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.add("town", getNamedData(town.getName(), town.getUUID().toString()));
+        jsonObject.addProperty("world", worldCoord.getWorldName());
+        jsonObject.addProperty("x", worldCoord.getX());
+        jsonObject.addProperty("z", worldCoord.getZ());
+
+        return jsonObject;
+    }
+}
\ No newline at end of file
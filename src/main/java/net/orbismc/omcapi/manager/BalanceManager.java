@@ -0,0 +1,126 @@
+package net.orbismc.omcapi.manager;
+
+import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.TownyEconomyHandler;
+import com.palmergames.bukkit.towny.object.Nation;
+import com.palmergames.bukkit.towny.object.Town;
+import net.milkbowl.vault.economy.Economy;
+import net.orbismc.omcapi.object.balance.BalanceCache;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.NationSnapshot;
+import net.orbismc.omcapi.object.snapshot.ResidentSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+import net.orbismc.omcapi.object.snapshot.TownSnapshot;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches player, town and nation balances so requests do not wait on the economy plugin, which may be backed by a
+ * database. Whenever a snapshot is published a capped number of stale balances are refreshed on a single low priority
+ * thread, so the balance leaderboards catch up over time without requests asking for them, and without taking the
+ * threads that lookups load balances on.
+ */
+public class BalanceManager implements SnapshotListener {
+
+    private final ExecutorService executor;
+    private final ExecutorService sweepExecutor;
+    private final int sweepSize;
+    private final boolean nullable;
+    private final BalanceCache players;
+    private final BalanceCache towns;
+    private final BalanceCache nations;
+
+    public BalanceManager(FileConfiguration config, Economy economy, PlayerDirectoryManager playerDirectoryManager) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, config.getInt("behaviour.balance_threads")), runnable -> {
+            Thread thread = new Thread(runnable, "OMCAPI-Balance-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sweepExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OMCAPI-Balance-Sweep");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.sweepSize = Math.max(0, config.getInt("behaviour.balance_sweep_size"));
+        this.nullable = config.getBoolean("behaviour.nullable_balances");
+
+        long ttlMillis = Math.max(0, config.getLong("behaviour.balance_ttl_seconds")) * 1000;
+        long fetchTimeoutMillis = Math.max(0, config.getLong("behaviour.balance_fetch_timeout_ms"));
+
+        this.players = new BalanceCache(uuid -> {
+            if (economy == null) throw new IllegalStateException("No economy is registered");
+            return economy.getBalance(playerDirectoryManager.getOfflinePlayer(uuid));
+        }, executor, ttlMillis, fetchTimeoutMillis);
+        this.towns = new BalanceCache(uuid -> {
+            Town town = TownyAPI.getInstance().getTown(uuid);
+            if (town == null || !TownyEconomyHandler.isActive()) throw new IllegalStateException("Town balance is unavailable");
+            return town.getAccount().getHoldingBalance();
+        }, executor, ttlMillis, fetchTimeoutMillis);
+        this.nations = new BalanceCache(uuid -> {
+            Nation nation = TownyAPI.getInstance().getNation(uuid);
+            if (nation == null || !TownyEconomyHandler.isActive()) throw new IllegalStateException("Nation balance is unavailable");
+            return nation.getAccount().getHoldingBalance();
+        }, executor, ttlMillis, fetchTimeoutMillis);
+    }
+
+    /**
+     * @return whether balances that could not be read in time are written as null alongside their age, rather than read
+     * on the writing thread so they are always a number
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public BalanceCache getPlayers() {
+        return players;
+    }
+
+    public BalanceCache getTowns() {
+        return towns;
+    }
+
+    public BalanceCache getNations() {
+        return nations;
+    }
+
+    @Override
+    public void onPublish(DataSnapshot previous, DataSnapshot current) {
+        Set<UUID> residentUUIDs = new HashSet<>();
+        for (ResidentSnapshot resident : current.getResidents()) {
+            residentUUIDs.add(resident.getUUID());
+        }
+
+        Set<UUID> townUUIDs = new HashSet<>();
+        for (TownSnapshot town : current.getTowns()) {
+            townUUIDs.add(town.getUUID());
+        }
+
+        Set<UUID> nationUUIDs = new HashSet<>();
+        for (NationSnapshot nation : current.getNations()) {
+            nationUUIDs.add(nation.getUUID());
+        }
+
+        players.retainAll(residentUUIDs);
+        towns.retainAll(townUUIDs);
+        nations.retainAll(nationUUIDs);
+        if (sweepSize == 0) return;
+
+        players.sweepStale(residentUUIDs, sweepSize, sweepExecutor);
+        towns.sweepStale(townUUIDs, sweepSize, sweepExecutor);
+        nations.sweepStale(nationUUIDs, sweepSize, sweepExecutor);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        sweepExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,136 @@
+package net.orbismc.omcapi.manager;
+
+import net.orbismc.omcapi.object.change.ChangeAction;
+import net.orbismc.omcapi.object.change.ChangeEntry;
+import net.orbismc.omcapi.object.change.ChangeSet;
+import net.orbismc.omcapi.object.change.ChangeType;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import net.orbismc.omcapi.object.snapshot.NationSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A bounded, monotonically versioned log of Towny changes.
+ * Changes reported by Towny events are held back until the next snapshot is published, so a client that sees a
+ * version can always fetch the data it refers to.
+ */
+public class ChangeFeedManager implements SnapshotListener {
+
+    private final ChangeEntry[] ring;
+    private int head;
+    private int size;
+    private long version;
+
+    private final List<ChangeEntry> pending = new ArrayList<>();
+
+    public ChangeFeedManager(int capacity) {
+        this.ring = new ChangeEntry[Math.max(1, capacity)];
+
+        // Versions start from the start time, so they keep increasing across restarts and a version from before a
+        // restart is always older than the log, telling its client to resync. Stays well within what JSON numbers hold.
+        this.version = System.currentTimeMillis() * 1000;
+    }
+
+    public synchronized void record(ChangeType type, ChangeAction action, UUID uuid, String... fields) {
+        if (uuid == null) return;
+
+        pending.add(new ChangeEntry(0, type, action, uuid, Set.of(fields)));
+    }
+
+    @Override
+    public void onPublish(DataSnapshot previous, DataSnapshot current) {
+        // Alliances have no dependable Towny event, so they are picked up by comparing snapshots
+        if (previous != null) {
+            for (NationSnapshot nation : current.getNations()) {
+                NationSnapshot previousNation = previous.getNation(nation.getUUID());
+                if (previousNation == null) continue;
+
+                if (!hasSameUUIDs(previousNation.getAllies(), nation.getAllies())) {
+                    record(ChangeType.NATION, ChangeAction.UPDATED, nation.getUUID(), "allies", "stats.numAllies");
+                }
+                if (!hasSameUUIDs(previousNation.getEnemies(), nation.getEnemies())) {
+                    record(ChangeType.NATION, ChangeAction.UPDATED, nation.getUUID(), "enemies", "stats.numEnemies");
+                }
+            }
+        }
+
+        synchronized (this) {
+            for (ChangeEntry change : pending) {
+                append(new ChangeEntry(++version, change.getType(), change.getAction(), change.getUUID(), change.getFields()));
+            }
+            pending.clear();
+        }
+    }
+
+    private void append(ChangeEntry entry) {
+        if (size < ring.length) {
+            ring[(head + size) % ring.length] = entry;
+            size++;
+        } else {
+            ring[head] = entry;
+            head = (head + 1) % ring.length;
+        }
+    }
+
+    /**
+     * @param since the last version the client has seen, 0 if it has never synced, which always results in a resync
+     */
+    public synchronized ChangeSet getChangesSince(long since) {
+        long oldestVersion = size == 0 ? version + 1 : ring[head].getVersion();
+
+        // A version ahead of this log can only come from another run, for example if the clock went back
+        if (since < oldestVersion - 1 || since > version) return new ChangeSet(version, true, Collections.emptyList());
+
+        Map<String, ChangeEntry> merged = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            ChangeEntry entry = ring[(head + i) % ring.length];
+            if (entry.getVersion() <= since) continue;
+
+            String key = entry.getType() + ":" + entry.getUUID();
+            merged.merge(key, entry, ChangeFeedManager::merge);
+        }
+
+        return new ChangeSet(version, false, new ArrayList<>(merged.values()));
+    }
+
+    private static ChangeEntry merge(ChangeEntry earlier, ChangeEntry later) {
+        ChangeAction action;
+        if (later.getAction() == ChangeAction.DELETED) {
+            action = ChangeAction.DELETED;
+        } else if (earlier.getAction() == ChangeAction.CREATED) {
+            action = ChangeAction.CREATED;
+        } else {
+            action = later.getAction();
+        }
+
+        Set<String> fields = new LinkedHashSet<>(earlier.getFields());
+        fields.addAll(later.getFields());
+
+        return new ChangeEntry(later.getVersion(), later.getType(), action, later.getUUID(), fields);
+    }
+
+    private static boolean hasSameUUIDs(List<? extends NamedObject> previous, List<? extends NamedObject> current) {
+        if (previous.size() != current.size()) return false;
+
+        Set<UUID> previousUUIDs = new HashSet<>();
+        for (NamedObject object : previous) {
+            previousUUIDs.add(object.getUUID());
+        }
+
+        for (NamedObject object : current) {
+            if (!previousUUIDs.contains(object.getUUID())) return false;
+        }
+
+        return true;
+    }
+}
@@ -1,74 +1,408 @@
 package net.orbismc.omcapi.manager;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.gson.*;
 import io.javalin.Javalin;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import io.javalin.http.NotFoundResponse;
+import io.javalin.http.ServiceUnavailableResponse;
+import net.orbismc.omcapi.OMCAPI;
 import net.orbismc.omcapi.endpoint.towny.list.NationsListEndpoint;
 import net.orbismc.omcapi.endpoint.towny.list.PlayersListEndpoint;
 import net.orbismc.omcapi.endpoint.towny.list.TownsListEndpoint;
+import net.orbismc.omcapi.object.endpoint.CachedResponse;
+import net.orbismc.omcapi.object.endpoint.FieldSelector;
+import net.orbismc.omcapi.object.endpoint.ListEndpoint;
+import net.orbismc.omcapi.object.endpoint.PageRequest;
+import net.orbismc.omcapi.object.endpoint.PostEndpoint;
+import net.orbismc.omcapi.object.push.PushTopic;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import net.orbismc.omcapi.object.snapshot.NationSnapshot;
+import net.orbismc.omcapi.object.snapshot.ResidentSnapshot;
+import net.orbismc.omcapi.object.snapshot.TownSnapshot;
+import net.orbismc.omcapi.util.EndpointUtils;
 import net.orbismc.omcapi.util.JSONUtil;
-import net.milkbowl.vault.economy.Economy;
+import net.orbismc.omcapi.endpoint.LocationEndpoint;
+import net.orbismc.omcapi.endpoint.NearbyEndpoint;
+import net.orbismc.omcapi.endpoint.SearchEndpoint;
 import net.orbismc.omcapi.endpoint.ServerEndpoint;
+import net.orbismc.omcapi.endpoint.mcmmo.LeaderboardEndpoint;
+import net.orbismc.omcapi.endpoint.mcmmo.SkillsEndpoint;
+import net.orbismc.omcapi.endpoint.towny.ChangesEndpoint;
+import net.orbismc.omcapi.endpoint.towny.ClaimsEndpoint;
 import net.orbismc.omcapi.endpoint.towny.NationsEndpoint;
 import net.orbismc.omcapi.endpoint.towny.PlayersEndpoint;
+import net.orbismc.omcapi.endpoint.towny.RankingsEndpoint;
 import net.orbismc.omcapi.endpoint.towny.TownsEndpoint;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToLongFunction;
+
 public class EndpointManager {
 
     private final Javalin javalin;
-    private final Economy economy;
+    private final SnapshotManager snapshotManager;
+    private final ChangeFeedManager changeFeedManager;
+    private final PushManager pushManager;
+    private final TileManager tileManager;
+    private final SearchManager searchManager;
+    private final McMMOManager mcMMOManager;
+    private final LeaderboardManager leaderboardManager;
+    private final PlayerDirectoryManager playerDirectoryManager;
+    private final BalanceManager balanceManager;
+    private final TownyLeaderboardManager townyLeaderboardManager;
+    private final WorldAccessManager worldAccessManager;
+    private final Map<String, CachedResponse> responseCache = new ConcurrentHashMap<>();
+    private final Semaphore inFlightRequests;
+    private final int maxPageSize;
+    private final int maxSearchResults;
+    private final long requestTimeoutMillis;
 
-    public EndpointManager(Javalin javalin, FileConfiguration config, Economy economy) {
+    public EndpointManager(Javalin javalin, FileConfiguration config, SnapshotManager snapshotManager, ChangeFeedManager changeFeedManager, PushManager pushManager, TileManager tileManager, SearchManager searchManager, McMMOManager mcMMOManager, LeaderboardManager leaderboardManager, PlayerDirectoryManager playerDirectoryManager, BalanceManager balanceManager, TownyLeaderboardManager townyLeaderboardManager, WorldAccessManager worldAccessManager) {
         this.javalin = javalin;
-        this.economy = economy;
+        this.snapshotManager = snapshotManager;
+        this.changeFeedManager = changeFeedManager;
+        this.pushManager = pushManager;
+        this.tileManager = tileManager;
+        this.searchManager = searchManager;
+        this.mcMMOManager = mcMMOManager;
+        this.leaderboardManager = leaderboardManager;
+        this.playerDirectoryManager = playerDirectoryManager;
+        this.balanceManager = balanceManager;
+        this.townyLeaderboardManager = townyLeaderboardManager;
+        this.worldAccessManager = worldAccessManager;
+
+        int maxInFlightRequests = config.getInt("networking.max_in_flight_requests");
+        this.inFlightRequests = maxInFlightRequests > 0 ? new Semaphore(maxInFlightRequests) : null;
+        this.maxPageSize = config.getInt("behaviour.max_page_size");
+        this.maxSearchResults = config.getInt("behaviour.max_search_results");
+        this.requestTimeoutMillis = Math.max(1, config.getLong("networking.request_timeout_ms"));
     }
 
     public void loadEndpoints() {
-        ServerEndpoint serverEndpoint = new ServerEndpoint();
-        javalin.get("/", ctx -> ctx.json(serverEndpoint.lookup()));
+        if (inFlightRequests != null) loadRequestLimiter();
+
+        javalin.before(ctx -> {
+            DataSnapshot snapshot = snapshotManager.getSnapshot();
+            if (snapshot == null) throw new ServiceUnavailableResponse("No data snapshot has been captured yet");
+
+            ctx.header("X-Snapshot-Version", String.valueOf(snapshot.getVersion()));
+            ctx.header("X-Snapshot-Age", String.valueOf(snapshot.getAge()));
+            ctx.header("X-Snapshot-Capture-Ticks", String.valueOf(snapshot.getCaptureTicks()));
+            ctx.header("X-Snapshot-Pending", String.valueOf(snapshotManager.getPendingCount()));
+        });
+
+        ServerEndpoint serverEndpoint = new ServerEndpoint(snapshotManager);
+        javalin.get("/", ctx -> ctx.future(() -> withTimeout(serverEndpoint.lookupAsync(getRequestExecutor()))
+                .thenAccept(json -> ctx.contentType("application/json").result(json))));
 
         loadPlayersEndpoint();
         loadTownsEndpoint();
         loadNationsEndpoint();
-    }
 
-    private JsonArray parseBody(String body) {
-        JsonObject jsonObject = JSONUtil.getJsonObjectFromString(body);
+        ChangesEndpoint changesEndpoint = new ChangesEndpoint(changeFeedManager);
+        javalin.get("/changes", ctx -> {
+            long since = ctx.queryParamAsClass("since", Long.class).getOrDefault(0L);
+
+            ctx.contentType("application/json");
+            changesEndpoint.lookup(since, ctx.outputStream());
+        });
+
+        NearbyEndpoint nearbyEndpoint = new NearbyEndpoint(snapshotManager);
+        javalin.post("/nearby", ctx -> writeLookup(ctx, nearbyEndpoint));
+
+        SkillsEndpoint skillsEndpoint = new SkillsEndpoint(mcMMOManager, playerDirectoryManager, worldAccessManager);
+        javalin.post("/skills", ctx -> writeLookup(ctx, skillsEndpoint));
+
+        // Registered before the mcMMO leaderboards, whose {skill}/{player} route would otherwise match these paths
+        RankingsEndpoint rankingsEndpoint = new RankingsEndpoint(snapshotManager, townyLeaderboardManager);
+        for (String entity : List.of(TownyLeaderboardManager.TOWNS, TownyLeaderboardManager.NATIONS, TownyLeaderboardManager.PLAYERS)) {
+            javalin.get("/leaderboards/" + entity + "/{metric}", ctx -> {
+                int offset = ctx.queryParamAsClass("offset", Integer.class).check(o -> o >= 0, "Invalid offset provided").getOrDefault(0);
+                int limit = ctx.queryParamAsClass("limit", Integer.class).check(l -> l > 0, "Invalid limit provided").getOrDefault(maxPageSize);
+
+                ctx.contentType("application/json");
+                rankingsEndpoint.lookup(entity, ctx.pathParam("metric"), offset, Math.min(limit, maxPageSize), ctx.outputStream());
+            });
+            javalin.get("/leaderboards/" + entity + "/{metric}/{identifier}", ctx -> {
+                ctx.contentType("application/json");
+                rankingsEndpoint.lookupRank(entity, ctx.pathParam("metric"), ctx.pathParam("identifier"), ctx.outputStream());
+            });
+        }
+
+        LeaderboardEndpoint leaderboardEndpoint = new LeaderboardEndpoint(leaderboardManager);
+        javalin.get("/leaderboards/{skill}", ctx -> {
+            int offset = ctx.queryParamAsClass("offset", Integer.class).check(o -> o >= 0, "Invalid offset provided").getOrDefault(0);
+            int limit = ctx.queryParamAsClass("limit", Integer.class).check(l -> l > 0, "Invalid limit provided").getOrDefault(maxPageSize);
+
+            ctx.contentType("application/json");
+            leaderboardEndpoint.lookup(ctx.pathParam("skill"), offset, Math.min(limit, maxPageSize), ctx.outputStream());
+        });
+        javalin.get("/leaderboards/{skill}/{player}", ctx -> {
+            ResidentSnapshot resident = snapshotManager.getSnapshot().resolveResident(ctx.pathParam("player"));
+            String player = resident != null ? resident.getName() : ctx.pathParam("player");
+
+            ctx.contentType("application/json");
+            leaderboardEndpoint.lookupRank(ctx.pathParam("skill"), player, ctx.outputStream());
+        });
+
+        SearchEndpoint searchEndpoint = new SearchEndpoint(searchManager);
+        javalin.get("/search", ctx -> {
+            String query = ctx.queryParam("q");
+            if (query == null || query.isBlank()) throw new BadRequestResponse("No search query provided");
 
+            int limit = Math.min(ctx.queryParamAsClass("limit", Integer.class).check(l -> l > 0, "Invalid limit provided").getOrDefault(10), maxSearchResults);
+            Set<String> types = SearchEndpoint.TYPES;
+            String type = ctx.queryParam("type");
+            if (type != null) {
+                if (!SearchEndpoint.TYPES.contains(type)) throw new BadRequestResponse("Invalid search type provided");
+                types = Set.of(type);
+            }
+
+            ctx.contentType("application/json");
+            searchEndpoint.lookup(query.trim(), types, limit, ctx.outputStream());
+        });
+
+        javalin.get("/tiles/{world}/{z}/{x}/{y}", ctx -> {
+            int zoom = ctx.pathParamAsClass("z", Integer.class)
+                    .check(z -> z >= 0 && z <= tileManager.getMaxZoom(), "Invalid zoom level provided").get();
+            int x = ctx.pathParamAsClass("x", Integer.class).get();
+            int y = ctx.pathParamAsClass("y", Integer.class).get();
+
+            ctx.contentType("image/png").result(tileManager.getTile(ctx.pathParam("world"), zoom, x, y));
+        });
+
+        javalin.sse("/events", client -> pushManager.subscribe(client, parseTopics(client.ctx().queryParam("topics"))));
+
+        LocationEndpoint locationEndpoint = new LocationEndpoint(snapshotManager);
+        javalin.post("/location", ctx -> writeLookup(ctx, locationEndpoint));
+        javalin.post("/location/bulk", ctx -> {
+            ctx.contentType("application/json");
+            locationEndpoint.bulkLookup(ctx.bodyInputStream(), ctx.outputStream());
+        });
+    }
+
+    private JsonArray parseBody(JsonObject jsonObject) {
         JsonArray queryArray = jsonObject.get("query").getAsJsonArray();
         if (queryArray == null) throw new BadRequestResponse("Invalid query array provided");
 
         return queryArray;
     }
 
-    private void loadPlayersEndpoint() {
-        PlayersListEndpoint ple = new PlayersListEndpoint();
-        javalin.get("/players", ctx -> ctx.json(ple.lookup()));
+    /**
+     * Rejects requests once the configured number are already being handled, instead of letting them queue behind slow lookups.
+     * The event stream is left out since its connections stay open.
+     */
+    private void loadRequestLimiter() {
+        javalin.before(ctx -> {
+            if (ctx.path().equals("/events")) return;
+            if (!inFlightRequests.tryAcquire()) throw new ServiceUnavailableResponse("Too many requests are being handled, try again later");
+
+            ctx.attribute("omcapi.permit", true);
+        });
+
+        javalin.after(ctx -> {
+            if (ctx.attribute("omcapi.permit") != null) inFlightRequests.release();
+        });
+    }
+
+    /**
+     * @param topics a comma separated list of topics, or null to subscribe to all of them
+     */
+    private Set<PushTopic> parseTopics(String topics) {
+        if (topics == null || topics.isBlank()) return EnumSet.allOf(PushTopic.class);
+
+        Set<PushTopic> topicSet = EnumSet.noneOf(PushTopic.class);
+        for (String topic : topics.split(",")) {
+            try {
+                topicSet.add(PushTopic.valueOf(topic.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ignored) {
+                // Unknown topics are skipped, the headers of an event stream have already been sent
+            }
+        }
+
+        return topicSet;
+    }
+
+    private PageRequest parsePage(Context ctx) {
+        Integer limit = ctx.queryParamAsClass("limit", Integer.class).allowNullable().get();
+        return PageRequest.of(ctx.queryParam("cursor"), limit, maxPageSize);
+    }
+
+    private void writeNamedPage(Context ctx, List<? extends NamedObject> objects) throws IOException {
+        PageRequest page = parsePage(ctx);
+
+        ctx.contentType("application/json");
+        try (JsonGenerator generator = JSONUtil.createGenerator(ctx.outputStream())) {
+            EndpointUtils.writeNamedPage(generator, EndpointUtils.sortedByUUID(objects), page);
+        }
+    }
+
+    /**
+     * Parses and resolves the query on the request thread. If everything the lookup needs is already loaded the
+     * response is streamed straight away, otherwise the lookup is handed to Javalin as a future, so no request thread
+     * waits on balances or the server thread, and is streamed on a Jetty pool thread once it completes.
+     * Work is only cancelled when the request timeout passes. Jetty 11 does not report a client that disconnects while
+     * nothing is being written, so cancelling on disconnect is not attempted.
+     */
+    private <T> void writeLookup(Context ctx, PostEndpoint<T> endpoint) throws IOException {
+        JsonObject body = JSONUtil.getJsonObjectFromString(ctx.body());
+        JsonArray queryArray = parseBody(body);
+        FieldSelector fields = FieldSelector.of(JSONUtil.getJsonElementAsJsonArrayOrNull(body.get("fields")));
+
+        CompletableFuture<List<T>> lookup = endpoint.lookupAsync(queryArray, fields);
+        if (lookup.isDone() && !lookup.isCompletedExceptionally()) {
+            ctx.contentType("application/json");
+            endpoint.writeObjects(lookup.join(), fields, ctx.outputStream());
+            return;
+        }
+
+        ctx.future(() -> withTimeout(lookup).thenAcceptAsync(objects -> {
+            ctx.contentType("application/json");
+            try {
+                endpoint.writeObjects(objects, fields, ctx.outputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, getRequestExecutor()));
+    }
 
-        PlayersEndpoint playersEndpoint = new PlayersEndpoint(economy);
-        javalin.post("/players", ctx -> {
-            ctx.json(playersEndpoint.lookup(parseBody(ctx.body())));
+    /**
+     * Fails the future with a 503 once the request timeout passes, which also cancels the work it is waiting on
+     */
+    private <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future) {
+        return future.orTimeout(requestTimeoutMillis, TimeUnit.MILLISECONDS).handle((result, e) -> {
+            if (e == null) return result;
+
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) throw new ServiceUnavailableResponse("The lookup timed out");
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new CompletionException(cause);
         });
     }
 
+    /**
+     * @return Jetty's request thread pool, so work resumed after a future runs where the request would have run anyway
+     */
+    private Executor getRequestExecutor() {
+        return javalin.jettyServer().server().getThreadPool();
+    }
+
+    /**
+     * Serves a list endpoint from pre-encoded bytes, only regenerating them when the snapshot list they depend on changes.
+     * Requests with a cursor or limit get a single page instead.
+     */
+    private void getCached(String path, ListEndpoint endpoint, ToLongFunction<DataSnapshot> listVersion) {
+        javalin.get(path, ctx -> {
+            if (ctx.queryParam("cursor") != null || ctx.queryParam("limit") != null) {
+                ctx.contentType("application/json");
+                endpoint.writePage(parsePage(ctx), ctx.outputStream());
+                return;
+            }
+
+            long version = listVersion.applyAsLong(snapshotManager.getSnapshot());
+            CachedResponse response = responseCache.compute(path, (key, cached) ->
+                    cached != null && cached.getVersion() == version ? cached : new CachedResponse(version, endpoint.lookup()));
+
+            writeCached(ctx, response);
+        });
+    }
+
+    private void writeCached(Context ctx, CachedResponse response) throws IOException {
+        boolean gzip = EndpointUtils.acceptsGzip(ctx.header(Header.ACCEPT_ENCODING));
+
+        ctx.header(Header.ETAG, response.getEtag(gzip));
+        ctx.header(Header.CACHE_CONTROL, "no-cache");
+        ctx.header(Header.VARY, Header.ACCEPT_ENCODING);
+
+        if (response.matches(ctx.header(Header.IF_NONE_MATCH), gzip)) {
+            ctx.status(HttpStatus.NOT_MODIFIED);
+            return;
+        }
+
+        byte[] bytes = gzip ? response.getGzipBytes() : response.getBytes();
+
+        // Written straight to the servlet stream so Javalin does not compress the body a second time
+        ctx.contentType("application/json");
+        if (gzip) ctx.header(Header.CONTENT_ENCODING, "gzip");
+        ctx.res().setContentLength(bytes.length);
+
+        OutputStream outputStream = ctx.res().getOutputStream();
+        outputStream.write(bytes);
+        outputStream.flush();
+    }
+
+    private void loadPlayersEndpoint() {
+        PlayersListEndpoint ple = new PlayersListEndpoint(snapshotManager);
+        getCached("/players", ple, DataSnapshot::getResidentListVersion);
+
+        PlayersEndpoint playersEndpoint = new PlayersEndpoint(snapshotManager, balanceManager);
+        javalin.post("/players", ctx -> writeLookup(ctx, playersEndpoint));
+    }
+
     private void loadTownsEndpoint() {
-        TownsListEndpoint tle = new TownsListEndpoint();
-        javalin.get("/towns", ctx -> ctx.json(tle.lookup()));
+        TownsListEndpoint tle = new TownsListEndpoint(snapshotManager);
+        getCached("/towns", tle, DataSnapshot::getTownListVersion);
 
-        TownsEndpoint townsEndpoint = new TownsEndpoint();
-        javalin.post("/towns", ctx -> {
-            ctx.json(townsEndpoint.lookup(parseBody(ctx.body())));
+        TownsEndpoint townsEndpoint = new TownsEndpoint(snapshotManager, balanceManager);
+        javalin.post("/towns", ctx -> writeLookup(ctx, townsEndpoint));
+
+        javalin.get("/towns/{town}/townblocks", ctx -> {
+            TownSnapshot town = townsEndpoint.getTown(ctx.pathParam("town"));
+            if (town == null) throw new NotFoundResponse("Town not found");
+
+            ctx.contentType("application/json");
+            townsEndpoint.writeTownBlocksPage(town, parsePage(ctx), ctx.outputStream());
+        });
+        javalin.get("/towns/{town}/residents", ctx -> {
+            TownSnapshot town = townsEndpoint.getTown(ctx.pathParam("town"));
+            if (town == null) throw new NotFoundResponse("Town not found");
+
+            writeNamedPage(ctx, town.getResidents());
+        });
+
+        ClaimsEndpoint claimsEndpoint = new ClaimsEndpoint(snapshotManager);
+        snapshotManager.addListener(claimsEndpoint);
+        javalin.get("/claims", ctx -> ctx.contentType("application/octet-stream").result(claimsEndpoint.lookupAll()));
+        javalin.get("/towns/{town}/claims", ctx -> {
+            TownSnapshot town = townsEndpoint.getTown(ctx.pathParam("town"));
+            if (town == null) throw new NotFoundResponse("Town not found");
+
+            ctx.contentType("application/octet-stream").result(claimsEndpoint.lookup(town));
         });
     }
 
     private void loadNationsEndpoint() {
-        NationsListEndpoint nle = new NationsListEndpoint();
-        javalin.get("/nations", ctx -> ctx.json(nle.lookup()));
+        NationsListEndpoint nle = new NationsListEndpoint(snapshotManager);
+        getCached("/nations", nle, DataSnapshot::getNationListVersion);
+
+        NationsEndpoint nationsEndpoint = new NationsEndpoint(snapshotManager, balanceManager);
+        javalin.post("/nations", ctx -> writeLookup(ctx, nationsEndpoint));
+
+        javalin.get("/nations/{nation}/residents", ctx -> {
+            NationSnapshot nation = nationsEndpoint.getNation(ctx.pathParam("nation"));
+            if (nation == null) throw new NotFoundResponse("Nation not found");
 
-        NationsEndpoint nationsEndpoint = new NationsEndpoint();
-        javalin.post("/nations", ctx -> {
-            ctx.json(nationsEndpoint.lookup(parseBody(ctx.body())));
+            writeNamedPage(ctx, nation.getResidents());
         });
     }
-}
\ No newline at end of file
+}
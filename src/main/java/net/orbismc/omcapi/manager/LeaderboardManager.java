@@ -0,0 +1,103 @@
+package net.orbismc.omcapi.manager;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import net.orbismc.omcapi.OMCAPI;
+import net.orbismc.omcapi.util.RankedSet;
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Keeps the top players of every mcMMO skill and of power level ranked in memory.
+ * The rankings are rebuilt from mcMMO's database on an async timer and updated in between whenever an online player
+ * levels up, so leaderboard requests never touch mcMMO.
+ */
+public class LeaderboardManager implements McMMOManager.LevelUpHandler {
+
+    public static final String POWER_LEVEL = "POWER";
+
+    private final OMCAPI plugin;
+    private final McMMOManager mcMMOManager;
+    private final int size;
+    private final long refreshSeconds;
+
+    private volatile Map<String, RankedSet<String>> leaderboards = Collections.emptyMap();
+    private ScheduledTask task;
+
+    public LeaderboardManager(OMCAPI plugin, McMMOManager mcMMOManager) {
+        this.plugin = plugin;
+        this.mcMMOManager = mcMMOManager;
+        this.size = Math.max(1, plugin.getConfig().getInt("behaviour.leaderboard_size"));
+        this.refreshSeconds = Math.max(1, plugin.getConfig().getLong("behaviour.leaderboard_refresh_seconds"));
+    }
+
+    public void start() {
+        mcMMOManager.addLevelUpHandler(this);
+        task = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, scheduledTask -> refresh(), 0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (task != null) task.cancel();
+    }
+
+    /**
+     * @param skill an mcMMO skill name or {@link #POWER_LEVEL}
+     * @return the ranking, or null if the skill is not tracked or mcMMO is unavailable
+     */
+    public RankedSet<String> getLeaderboard(String skill) {
+        return leaderboards.get(skill);
+    }
+
+    public boolean isAvailable() {
+        return !leaderboards.isEmpty();
+    }
+
+    @Override
+    public void onLevelUp(Player player, String skill) throws Throwable {
+        McMMOManager.Hooks hooks = mcMMOManager.getHooks();
+        if (hooks == null) return;
+
+        Object mcMMOPlayer = hooks.getPlayer(player);
+        if (mcMMOPlayer == null) return;
+
+        RankedSet<String> skillLeaderboard = leaderboards.get(skill);
+        if (skillLeaderboard != null) skillLeaderboard.put(player.getName(), hooks.getSkillLevel(mcMMOPlayer, skill));
+
+        RankedSet<String> powerLeaderboard = leaderboards.get(POWER_LEVEL);
+        if (powerLeaderboard != null) powerLeaderboard.put(player.getName(), hooks.getPowerLevel(mcMMOPlayer));
+    }
+
+    private void refresh() {
+        McMMOManager.Hooks hooks = mcMMOManager.getHooks();
+        if (hooks == null || !hooks.hasLeaderboards()) {
+            leaderboards = Collections.emptyMap();
+            return;
+        }
+
+        try {
+            Map<String, RankedSet<String>> refreshed = new HashMap<>();
+            refreshed.put(POWER_LEVEL, read(hooks, null));
+            for (String skill : hooks.nonChildSkills()) {
+                refreshed.put(skill, read(hooks, skill));
+            }
+
+            leaderboards = Collections.unmodifiableMap(refreshed);
+        } catch (Throwable e) {
+            // Keep serving the previous rankings until the next refresh
+            plugin.getLogger().log(Level.WARNING, "Failed to refresh the mcMMO leaderboards", e);
+        }
+    }
+
+    private RankedSet<String> read(McMMOManager.Hooks hooks, String skill) throws Throwable {
+        RankedSet<String> leaderboard = new RankedSet<>(size);
+        for (RankedSet.Entry<String> entry : hooks.readLeaderboard(skill, 1, size)) {
+            leaderboard.put(entry.key(), entry.score());
+        }
+
+        return leaderboard;
+    }
+}
@@ -0,0 +1,207 @@
+package net.orbismc.omcapi.manager;
+
+import net.orbismc.omcapi.OMCAPI;
+import net.orbismc.omcapi.util.RankedSet;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+/**
+ * Binds the parts of mcMMO's API that the skills endpoint needs as method handles, once when mcMMO is enabled,
+ * so requests do not look classes and methods up again. mcMMO stays an optional dependency.
+ */
+public class McMMOManager {
+
+    public static final String PLUGIN_NAME = "mcMMO";
+
+    private static final String LEVEL_UP_EVENT = "com.gmail.nossr50.events.experience.McMMOPlayerLevelUpEvent";
+
+    private final OMCAPI plugin;
+    private final List<LevelUpHandler> levelUpHandlers = new CopyOnWriteArrayList<>();
+    private final Listener eventListener = new Listener() {};
+    private volatile Hooks hooks;
+
+    public McMMOManager(OMCAPI plugin) {
+        this.plugin = plugin;
+    }
+
+    public void hook() {
+        if (!plugin.getServer().getPluginManager().isPluginEnabled(PLUGIN_NAME)) return;
+
+        try {
+            hooks = bind();
+            plugin.getLogger().info("Hooked into mcMMO");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            hooks = null;
+            plugin.getLogger().log(Level.WARNING, "Failed to hook into mcMMO, skills will be unavailable", e);
+            return;
+        }
+
+        try {
+            registerLevelUpEvent();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to listen for mcMMO level ups, leaderboards will only update when refreshed", e);
+        }
+    }
+
+    public void unhook() {
+        hooks = null;
+        HandlerList.unregisterAll(eventListener);
+    }
+
+    public void addLevelUpHandler(LevelUpHandler handler) {
+        levelUpHandlers.add(handler);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void registerLevelUpEvent() throws ReflectiveOperationException {
+        Class<? extends Event> eventClass = (Class<? extends Event>) Class.forName(LEVEL_UP_EVENT);
+        MethodHandle getSkill = MethodHandles.publicLookup().unreflect(eventClass.getMethod("getSkill"))
+                .asType(MethodType.methodType(Object.class, Object.class));
+
+        HandlerList.unregisterAll(eventListener);
+        plugin.getServer().getPluginManager().registerEvent(eventClass, eventListener, EventPriority.MONITOR, (listener, event) -> {
+            if (!eventClass.isInstance(event)) return;
+
+            try {
+                String skill = ((Enum<?>) (Object) getSkill.invokeExact((Object) event)).name();
+                Player player = ((PlayerEvent) event).getPlayer();
+                for (LevelUpHandler handler : levelUpHandlers) {
+                    handler.onLevelUp(player, skill);
+                }
+            } catch (Throwable e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to handle an mcMMO level up", e);
+            }
+        }, plugin, true);
+    }
+
+    /**
+     * @return the bound API, or null if mcMMO is not enabled
+     */
+    public Hooks getHooks() {
+        return hooks;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Hooks bind() throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Class<?> skillAPIClass = Class.forName("com.gmail.nossr50.api.SkillAPI");
+        Class<?> userManagerClass = Class.forName("com.gmail.nossr50.util.player.UserManager");
+        Class<?> skillTypeClass = Class.forName("com.gmail.nossr50.datatypes.skills.PrimarySkillType");
+
+        Method getOfflinePlayer = userManagerClass.getMethod("getOfflinePlayer", OfflinePlayer.class);
+        Class<?> playerClass = getOfflinePlayer.getReturnType();
+
+        MethodType skillGetter = MethodType.methodType(int.class, Object.class, Object.class);
+        MethodHandle getSkillLevel = lookup.unreflect(playerClass.getMethod("getSkillLevel", skillTypeClass)).asType(skillGetter);
+        MethodHandle getSkillXpLevel = lookup.unreflect(playerClass.getMethod("getSkillXpLevel", skillTypeClass)).asType(skillGetter);
+        MethodHandle getXpToLevel = lookup.unreflect(playerClass.getMethod("getXpToLevel", skillTypeClass)).asType(skillGetter);
+
+        List<String> allSkills = (List<String>) skillAPIClass.getMethod("getSkills").invoke(null);
+        Map<String, Object> skillTypes = new LinkedHashMap<>();
+        for (String skill : allSkills) {
+            skillTypes.put(skill, Enum.valueOf((Class<Enum>) skillTypeClass, skill));
+        }
+
+        // Leaderboards are optional, the rest of the hooks still work on versions without this method
+        MethodHandle getDatabaseManager = null, readLeaderboard = null, getStatName = null, getStatValue = null;
+        try {
+            Method getDatabaseManagerMethod = Class.forName("com.gmail.nossr50.mcMMO").getMethod("getDatabaseManager");
+            Class<?> playerStatClass = Class.forName("com.gmail.nossr50.datatypes.database.PlayerStat");
+
+            getDatabaseManager = lookup.unreflect(getDatabaseManagerMethod).asType(MethodType.methodType(Object.class));
+            readLeaderboard = lookup.unreflect(getDatabaseManagerMethod.getReturnType().getMethod("readLeaderboard", skillTypeClass, int.class, int.class))
+                    .asType(MethodType.methodType(List.class, Object.class, Object.class, int.class, int.class));
+            getStatName = lookup.unreflectGetter(playerStatClass.getField("name")).asType(MethodType.methodType(String.class, Object.class));
+            getStatValue = lookup.unreflectGetter(playerStatClass.getField("statVal")).asType(MethodType.methodType(int.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            getDatabaseManager = null;
+        }
+
+        return new Hooks(
+                lookup.unreflect(getOfflinePlayer).asType(MethodType.methodType(Object.class, OfflinePlayer.class)),
+                lookup.unreflect(playerClass.getMethod("getPowerLevel")).asType(MethodType.methodType(int.class, Object.class)),
+                getSkillLevel, getSkillXpLevel, getXpToLevel,
+                Collections.unmodifiableMap(skillTypes),
+                List.copyOf(allSkills),
+                List.copyOf((List<String>) skillAPIClass.getMethod("getNonChildSkills").invoke(null)),
+                List.copyOf((List<String>) skillAPIClass.getMethod("getCombatSkills").invoke(null)),
+                List.copyOf((List<String>) skillAPIClass.getMethod("getGatheringSkills").invoke(null)),
+                List.copyOf((List<String>) skillAPIClass.getMethod("getMiscSkills").invoke(null)),
+                getDatabaseManager, readLeaderboard, getStatName, getStatValue
+        );
+    }
+
+    public interface LevelUpHandler {
+        void onLevelUp(Player player, String skill) throws Throwable;
+    }
+
+    /**
+     * The bound mcMMO calls along with its skill lists, which never change while mcMMO is running
+     */
+    public record Hooks(MethodHandle getOfflinePlayer, MethodHandle getPowerLevel,
+                        MethodHandle getSkillLevel, MethodHandle getSkillXpLevel, MethodHandle getXpToLevel,
+                        Map<String, Object> skillTypes, List<String> allSkills, List<String> nonChildSkills,
+                        List<String> combatSkills, List<String> gatheringSkills, List<String> miscSkills,
+                        MethodHandle getDatabaseManager, MethodHandle readLeaderboard, MethodHandle getStatName, MethodHandle getStatValue) {
+
+        public boolean hasLeaderboards() {
+            return getDatabaseManager != null;
+        }
+
+        /**
+         * Reads a page of mcMMO's own leaderboard from its database, which can be slow and should be done off the main thread
+         * @param skill the skill, or null for power level
+         */
+        public List<RankedSet.Entry<String>> readLeaderboard(String skill, int page, int perPage) throws Throwable {
+            Object databaseManager = (Object) getDatabaseManager.invokeExact();
+            List<?> stats = (List<?>) readLeaderboard.invokeExact(databaseManager, skill == null ? null : skillTypes.get(skill), page, perPage);
+
+            List<RankedSet.Entry<String>> entries = new ArrayList<>(stats.size());
+            for (Object stat : stats) {
+                entries.add(new RankedSet.Entry<>((String) getStatName.invokeExact(stat), (int) getStatValue.invokeExact(stat)));
+            }
+
+            return entries;
+        }
+
+        /**
+         * @return the mcMMO player, or null if mcMMO has no data loaded for them
+         */
+        public Object getPlayer(OfflinePlayer offlinePlayer) throws Throwable {
+            return (Object) getOfflinePlayer.invokeExact(offlinePlayer);
+        }
+
+        public int getPowerLevel(Object player) throws Throwable {
+            return (int) getPowerLevel.invokeExact(player);
+        }
+
+        public int getSkillLevel(Object player, String skill) throws Throwable {
+            return (int) getSkillLevel.invokeExact(player, skillTypes.get(skill));
+        }
+
+        public int getSkillXpLevel(Object player, String skill) throws Throwable {
+            return (int) getSkillXpLevel.invokeExact(player, skillTypes.get(skill));
+        }
+
+        public int getXpToLevel(Object player, String skill) throws Throwable {
+            return (int) getXpToLevel.invokeExact(player, skillTypes.get(skill));
+        }
+    }
+}
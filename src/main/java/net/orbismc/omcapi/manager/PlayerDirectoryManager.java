@@ -0,0 +1,106 @@
+package net.orbismc.omcapi.manager;
+
+import net.orbismc.omcapi.OMCAPI;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.ResidentSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A local directory of player names and UUIDs, built from the server's known players and Towny residents and kept
+ * current on join. Endpoints resolve players through it instead of Bukkit's name lookups, which may ask Mojang.
+ */
+public class PlayerDirectoryManager implements SnapshotListener {
+
+    private final OMCAPI plugin;
+    private final SnapshotManager snapshotManager;
+    private final Map<String, UUID> uuidsByName = new ConcurrentHashMap<>();
+    private final Map<UUID, String> namesByUUID = new ConcurrentHashMap<>();
+    private final Map<UUID, OfflinePlayer> players = new ConcurrentHashMap<>();
+
+    public PlayerDirectoryManager(OMCAPI plugin, SnapshotManager snapshotManager) {
+        this.plugin = plugin;
+        this.snapshotManager = snapshotManager;
+    }
+
+    /**
+     * Reads the server's known players off the main thread, since it goes through every player data file
+     */
+    public void load() {
+        plugin.getServer().getAsyncScheduler().runNow(plugin, task -> {
+            for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+                add(player);
+            }
+        });
+    }
+
+    public void add(OfflinePlayer player) {
+        if (player.getName() != null) putName(player.getName(), player.getUniqueId());
+        players.put(player.getUniqueId(), player);
+    }
+
+    @Override
+    public void onPublish(DataSnapshot previous, DataSnapshot current) {
+        if (previous != null && previous.getResidentListVersion() == current.getResidentListVersion()) return;
+
+        for (ResidentSnapshot resident : current.getResidents()) {
+            putName(resident.getName(), resident.getUUID());
+        }
+    }
+
+    /**
+     * Drops the player's previous name when they have been renamed, unless it has been taken by someone else since
+     */
+    private void putName(String name, UUID uuid) {
+        String key = name.toLowerCase(Locale.ROOT);
+        String previous = namesByUUID.put(uuid, key);
+        if (previous != null && !previous.equals(key)) uuidsByName.remove(previous, uuid);
+
+        uuidsByName.put(key, uuid);
+    }
+
+    /**
+     * @return the UUID of the player with this name, or null if they are not known locally
+     */
+    public UUID getUUID(String name) {
+        UUID uuid = uuidsByName.get(name.toLowerCase(Locale.ROOT));
+        if (uuid != null) return uuid;
+
+        // Only consults the server's profile cache, never Mojang
+        OfflinePlayer cached = Bukkit.getOfflinePlayerIfCached(name);
+        if (cached == null) return null;
+
+        add(cached);
+        return cached.getUniqueId();
+    }
+
+    /**
+     * Known players and residents are cached, other UUIDs are looked up without being kept
+     */
+    public OfflinePlayer getOfflinePlayer(UUID uuid) {
+        OfflinePlayer player = players.get(uuid);
+        if (player != null) return player;
+
+        player = Bukkit.getOfflinePlayer(uuid);
+
+        // No snapshot has been published yet while the plugin is starting
+        DataSnapshot snapshot = snapshotManager.getSnapshot();
+        if (snapshot != null && snapshot.getResident(uuid) != null) players.put(uuid, player);
+
+        return player;
+    }
+
+    /**
+     * @return the player with this name, or null if they are not known locally
+     */
+    public OfflinePlayer getOfflinePlayer(String name) {
+        UUID uuid = getUUID(name);
+        return uuid == null ? null : getOfflinePlayer(uuid);
+    }
+}
@@ -0,0 +1,138 @@
+package net.orbismc.omcapi.manager;
+
+import com.google.gson.JsonObject;
+import io.javalin.http.sse.SseClient;
+import net.orbismc.omcapi.endpoint.ServerEndpoint;
+import net.orbismc.omcapi.object.push.PushEvent;
+import net.orbismc.omcapi.object.push.PushTopic;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans serialized events out to Server-Sent Events subscribers.
+ * Broadcasting only enqueues, the writes to each subscriber happen on a small dispatch pool, so a slow client
+ * never holds up the thread that raised the event. A subscriber whose queue is full misses events instead.
+ * Every subscriber is sent a comment on a fixed interval, so connections to quiet topics are not closed as idle.
+ */
+public class PushManager implements SnapshotListener {
+
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher;
+    private final int queueSize;
+
+    /**
+     * @param heartbeatMillis how often every subscriber is sent a comment, should be below the connection idle timeout
+     */
+    public PushManager(int dispatchThreads, int queueSize, long heartbeatMillis) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newScheduledThreadPool(Math.max(1, dispatchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "OMCAPI-Push-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.queueSize = Math.max(1, queueSize);
+
+        long interval = Math.max(1000, heartbeatMillis);
+        dispatcher.scheduleAtFixedRate(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void subscribe(SseClient client, Set<PushTopic> topics) {
+        Subscriber subscriber = new Subscriber(client, topics, queueSize);
+        subscribers.add(subscriber);
+
+        client.onClose(() -> subscribers.remove(subscriber));
+        client.keepAlive();
+    }
+
+    public void broadcast(PushTopic topic, String name, JsonObject data) {
+        if (subscribers.isEmpty()) return;
+
+        PushEvent event = new PushEvent(topic, name, data.toString());
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.topics.contains(topic)) continue;
+
+            if (subscriber.queue.offer(event)) {
+                scheduleDrain(subscriber);
+            } else {
+                subscriber.dropped.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void onPublish(DataSnapshot previous, DataSnapshot current) {
+        broadcast(PushTopic.SERVER, "server_stats", ServerEndpoint.getStatsObject(current.getServer()));
+    }
+
+    public void shutdown() {
+        dispatcher.shutdownNow();
+
+        for (Subscriber subscriber : subscribers) {
+            subscriber.client.close();
+        }
+        subscribers.clear();
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // Sent by the drain, so it never interleaves with an event being written
+            subscriber.heartbeat.set(true);
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) return;
+
+        dispatcher.execute(() -> drain(subscriber));
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.heartbeat.getAndSet(false)) subscriber.client.sendComment("heartbeat");
+
+            PushEvent event;
+            while ((event = subscriber.queue.poll()) != null) {
+                int dropped = subscriber.dropped.getAndSet(0);
+                if (dropped > 0) subscriber.client.sendEvent("dropped", "{\"count\":" + dropped + "}");
+
+                subscriber.client.sendEvent(event.getName(), event.getData());
+            }
+        } catch (Exception e) {
+            // The client has gone away mid-write
+            subscribers.remove(subscriber);
+            subscriber.client.close();
+        } finally {
+            subscriber.draining.set(false);
+        }
+
+        // An event may have been queued after the last poll but before the flag was cleared
+        if ((!subscriber.queue.isEmpty() || subscriber.heartbeat.get()) && subscribers.contains(subscriber)) scheduleDrain(subscriber);
+    }
+
+    private static class Subscriber {
+
+        private final SseClient client;
+        private final Set<PushTopic> topics;
+        private final BlockingQueue<PushEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean heartbeat = new AtomicBoolean();
+        private final AtomicInteger dropped = new AtomicInteger();
+
+        private Subscriber(SseClient client, Set<PushTopic> topics, int queueSize) {
+            this.client = client;
+            this.topics = topics;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.orbismc.omcapi.manager;
+
+import net.orbismc.omcapi.object.search.NameIndex;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+
+/**
+ * Keeps name indexes of residents, towns and nations for /search.
+ * Towny events update the indexes as they happen, and whenever a snapshot list's names change the index is reconciled
+ * against it to pick up anything without an event, such as residents Towny registers on first join.
+ */
+public class SearchManager implements SnapshotListener {
+
+    private final NameIndex residents = new NameIndex();
+    private final NameIndex towns = new NameIndex();
+    private final NameIndex nations = new NameIndex();
+
+    @Override
+    public void onPublish(DataSnapshot previous, DataSnapshot current) {
+        if (previous == null || previous.getResidentListVersion() != current.getResidentListVersion()) residents.reconcile(current.getResidents());
+        if (previous == null || previous.getTownListVersion() != current.getTownListVersion()) towns.reconcile(current.getTowns());
+        if (previous == null || previous.getNationListVersion() != current.getNationListVersion()) nations.reconcile(current.getNations());
+    }
+
+    public NameIndex getResidents() {
+        return residents;
+    }
+
+    public NameIndex getTowns() {
+        return towns;
+    }
+
+    public NameIndex getNations() {
+        return nations;
+    }
+}
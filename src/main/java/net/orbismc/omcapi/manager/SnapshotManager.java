@@ -0,0 +1,266 @@
+package net.orbismc.omcapi.manager;
+
+import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.object.Nation;
+import com.palmergames.bukkit.towny.object.Resident;
+import com.palmergames.bukkit.towny.object.Town;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import net.orbismc.omcapi.OMCAPI;
+import net.orbismc.omcapi.object.change.ChangeType;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import net.orbismc.omcapi.object.snapshot.NationSnapshot;
+import net.orbismc.omcapi.object.snapshot.ResidentSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+import net.orbismc.omcapi.object.snapshot.ServerSnapshot;
+import net.orbismc.omcapi.object.snapshot.TownSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Periodically copies Towny and server data into an immutable {@link DataSnapshot} on the global region thread.
+ * Endpoints read the latest snapshot instead of walking live Towny collections from Jetty threads.
+ * A capture copies objects for at most the tick budget per tick and carries on in the next tick, so a large server
+ * spreads its capture over several ticks instead of stalling one. Objects Towny reports a change for while a capture
+ * is in progress are copied again in the tick it is published, so every reported change is either fully in a snapshot
+ * or not in it at all.
+ */
+public class SnapshotManager {
+
+    private final OMCAPI plugin;
+    private final StatsManager statsManager;
+    private final long intervalTicks;
+    private final long tickBudgetNanos;
+    private final List<SnapshotListener> listeners = new CopyOnWriteArrayList<>();
+    private final Set<UUID> claimsChanged = ConcurrentHashMap.newKeySet();
+
+    private volatile DataSnapshot snapshot;
+    private ScheduledTask task;
+    private long nextVersion = 1;
+
+    // Only touched on the global region thread, apart from the pending count
+    private volatile Capture capture;
+    private long ticksSinceCapture;
+
+    public SnapshotManager(OMCAPI plugin, StatsManager statsManager) {
+        this.plugin = plugin;
+        this.statsManager = statsManager;
+        this.intervalTicks = Math.max(1, plugin.getConfig().getLong("behaviour.snapshot_interval_ticks"));
+        this.tickBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, plugin.getConfig().getLong("behaviour.snapshot_tick_budget_ms")));
+    }
+
+    /**
+     * Takes the first snapshot in one go, so there is one to serve as soon as the endpoints are up
+     */
+    public void start() {
+        step(Long.MAX_VALUE);
+        task = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, scheduledTask -> tick(), 1, 1);
+    }
+
+    public void stop() {
+        if (task != null) task.cancel();
+    }
+
+    public void addListener(SnapshotListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Makes the next capture re-read the town's claims instead of reusing the previous snapshot's
+     */
+    public void markClaimsChanged(UUID townUUID) {
+        claimsChanged.add(townUUID);
+    }
+
+    /**
+     * Makes the capture in progress, if any, copy the object again before publishing
+     */
+    public void markChanged(ChangeType type, UUID uuid) {
+        Capture current = capture;
+        if (current == null) return;
+
+        switch (type) {
+            case TOWN -> current.changedTowns.add(uuid);
+            case NATION -> current.changedNations.add(uuid);
+            case RESIDENT -> current.changedResidents.add(uuid);
+        }
+    }
+
+    /**
+     * @return the latest published snapshot
+     */
+    public DataSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return how many towns, nations and residents the capture in progress still has to copy
+     */
+    public int getPendingCount() {
+        Capture current = capture;
+        return current == null ? 0 : current.pending;
+    }
+
+    private void tick() {
+        ticksSinceCapture++;
+        if (capture == null) {
+            if (ticksSinceCapture < intervalTicks) return;
+            ticksSinceCapture = 0;
+        }
+
+        step(tickBudgetNanos == 0 ? Long.MAX_VALUE : tickBudgetNanos);
+    }
+
+    private void step(long budgetNanos) {
+        try {
+            if (capture == null) capture = new Capture();
+
+            Capture current = capture;
+            DataSnapshot captured = current.run(budgetNanos);
+            if (captured == null) return;
+
+            DataSnapshot previous = snapshot;
+            snapshot = captured;
+            capture = null;
+
+            notifyListeners(previous, snapshot);
+        } catch (Exception e) {
+            // Keep serving the previous snapshot, the next capture will most likely succeed
+            if (capture != null) claimsChanged.addAll(capture.changed);
+            capture = null;
+            plugin.getLogger().log(Level.WARNING, "Failed to capture a data snapshot", e);
+        }
+    }
+
+    /**
+     * A capture in progress. The Towny collections are copied up front, and objects deleted before their turn are skipped.
+     * A town's claim change mark is consumed when the town is copied, so a claim made after that is picked up when the
+     * town is copied again at the end of the capture, or by the next capture.
+     */
+    private class Capture {
+
+        private final TownyAPI townyAPI = TownyAPI.getInstance();
+        private final DataSnapshot previous = snapshot;
+        private final Set<UUID> changed = new HashSet<>();
+        private final Set<UUID> changedTowns = ConcurrentHashMap.newKeySet();
+        private final Set<UUID> changedNations = ConcurrentHashMap.newKeySet();
+        private final Set<UUID> changedResidents = ConcurrentHashMap.newKeySet();
+
+        private final List<Town> towns = new ArrayList<>(townyAPI.getTowns());
+        private final List<Nation> nations = new ArrayList<>(townyAPI.getNations());
+        private final List<Resident> residents = new ArrayList<>(townyAPI.getResidents());
+        private final List<TownSnapshot> townSnapshots = new ArrayList<>(towns.size());
+        private final List<NationSnapshot> nationSnapshots = new ArrayList<>(nations.size());
+        private final List<ResidentSnapshot> residentSnapshots = new ArrayList<>(residents.size());
+
+        private int townIndex;
+        private int nationIndex;
+        private int residentIndex;
+        private int ticks;
+        private volatile int pending = towns.size() + nations.size() + residents.size();
+
+        /**
+         * Copies objects until the budget runs out
+         * @return the snapshot once every object has been copied, otherwise null
+         */
+        private DataSnapshot run(long budgetNanos) {
+            long deadline = budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + budgetNanos;
+            ticks++;
+
+            for (; townIndex < towns.size() && System.nanoTime() < deadline; townIndex++) {
+                Town town = towns.get(townIndex);
+                if (townyAPI.getTown(town.getUUID()) == null) continue;
+
+                if (claimsChanged.remove(town.getUUID())) changed.add(town.getUUID());
+                townSnapshots.add(new TownSnapshot(town, getUnchangedTownBlocks(previous, town, changed)));
+            }
+
+            for (; nationIndex < nations.size() && System.nanoTime() < deadline; nationIndex++) {
+                Nation nation = nations.get(nationIndex);
+                if (townyAPI.getNation(nation.getUUID()) != null) nationSnapshots.add(new NationSnapshot(nation));
+            }
+
+            for (; residentIndex < residents.size() && System.nanoTime() < deadline; residentIndex++) {
+                Resident resident = residents.get(residentIndex);
+                if (townyAPI.getResident(resident.getUUID()) != null) residentSnapshots.add(new ResidentSnapshot(resident));
+            }
+
+            pending = towns.size() - townIndex + nations.size() - nationIndex + residents.size() - residentIndex;
+            if (pending > 0) return null;
+
+            // Objects changed since their turn, including ones created or deleted during the capture, are copied again
+            recapture(townSnapshots, changedTowns, uuid -> {
+                Town town = townyAPI.getTown(uuid);
+                if (town == null) return null;
+
+                if (claimsChanged.remove(uuid)) changed.add(uuid);
+                return new TownSnapshot(town, getUnchangedTownBlocks(previous, town, changed));
+            });
+            recapture(nationSnapshots, changedNations, uuid -> {
+                Nation nation = townyAPI.getNation(uuid);
+                return nation == null ? null : new NationSnapshot(nation);
+            });
+            recapture(residentSnapshots, changedResidents, uuid -> {
+                Resident resident = townyAPI.getResident(uuid);
+                return resident == null ? null : new ResidentSnapshot(resident);
+            });
+
+            return new DataSnapshot(nextVersion++, previous, new ServerSnapshot(statsManager), townSnapshots, nationSnapshots, residentSnapshots, ticks);
+        }
+    }
+
+    /**
+     * Replaces the snapshots of the changed objects with fresh copies, dropping objects the copy function no longer finds
+     */
+    private static <T extends NamedObject> void recapture(List<T> snapshots, Set<UUID> changed, Function<UUID, T> copy) {
+        if (changed.isEmpty()) return;
+
+        Map<UUID, T> byUUID = new LinkedHashMap<>();
+        for (T snapshot : snapshots) {
+            byUUID.put(snapshot.getUUID(), snapshot);
+        }
+
+        for (UUID uuid : List.copyOf(changed)) {
+            T copied = copy.apply(uuid);
+            if (copied == null) byUUID.remove(uuid);
+            else byUUID.put(uuid, copied);
+        }
+
+        snapshots.clear();
+        snapshots.addAll(byUUID.values());
+    }
+
+    /**
+     * Claims are the largest part of a town snapshot, so they are shared with the previous snapshot unless Towny reported a change.
+     * The claim count is compared as well in case a claim changed without an event.
+     */
+    private Map<String, int[]> getUnchangedTownBlocks(DataSnapshot previous, Town town, Set<UUID> changed) {
+        if (previous == null || changed.contains(town.getUUID())) return null;
+
+        TownSnapshot previousTown = previous.getTown(town.getUUID());
+        if (previousTown == null || previousTown.getNumTownBlocks() != town.getNumTownBlocks()) return null;
+
+        return previousTown.getTownBlocks();
+    }
+
+    private void notifyListeners(DataSnapshot previous, DataSnapshot current) {
+        for (SnapshotListener listener : listeners) {
+            try {
+                listener.onPublish(previous, current);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "A snapshot listener failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package net.orbismc.omcapi.manager;
+
+import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.object.Resident;
+import me.casperge.realisticseasons.api.SeasonsAPI;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+import net.orbismc.omcapi.object.snapshot.WorldSeasonSnapshot;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the server-wide counts shown by the root endpoint up to date from player and Towny events, so capturing
+ * server stats reads counters instead of walking every player and resident. The counts are recounted from Towny on
+ * startup and then on a published snapshot at most once per reconcile interval, which corrects anything an event missed
+ * without walking every resident each time the lists change.
+ */
+public class StatsManager implements SnapshotListener {
+
+    private final AtomicInteger numOnlineNomads = new AtomicInteger();
+    private final AtomicInteger numResidents = new AtomicInteger();
+    private final AtomicInteger numNomads = new AtomicInteger();
+    private final AtomicInteger numTowns = new AtomicInteger();
+    private final AtomicInteger numTownBlocks = new AtomicInteger();
+    private final AtomicInteger numNations = new AtomicInteger();
+
+    private final long reconcileIntervalMillis;
+    private volatile long lastRecount;
+    private volatile CachedSeasons seasons;
+
+    /**
+     * @param reconcileIntervalMillis how often the counts are recounted from Towny after startup, 0 to only count on startup
+     */
+    public StatsManager(long reconcileIntervalMillis) {
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+    }
+
+    /**
+     * Counts everything from Towny, needs to run on the global region thread
+     */
+    public void recount() {
+        TownyAPI townyAPI = TownyAPI.getInstance();
+
+        int onlineNomads = 0;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            Resident resident = townyAPI.getResident(player);
+            if (resident != null && !resident.hasTown()) onlineNomads++;
+        }
+
+        Collection<Resident> residents = townyAPI.getResidents();
+        int nomads = 0;
+        for (Resident resident : residents) {
+            if (!resident.hasTown()) nomads++;
+        }
+
+        numOnlineNomads.set(onlineNomads);
+        numResidents.set(residents.size());
+        numNomads.set(nomads);
+        numTowns.set(townyAPI.getTowns().size());
+        numTownBlocks.set(townyAPI.getTownBlocks().size());
+        numNations.set(townyAPI.getNations().size());
+        lastRecount = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onPublish(DataSnapshot previous, DataSnapshot current) {
+        if (reconcileIntervalMillis > 0 && System.currentTimeMillis() - lastRecount >= reconcileIntervalMillis) recount();
+    }
+
+    public void onPlayerJoin(Player player) {
+        Resident resident = TownyAPI.getInstance().getResident(player);
+        if (resident != null && !resident.hasTown()) numOnlineNomads.incrementAndGet();
+    }
+
+    public void onPlayerQuit(Player player) {
+        Resident resident = TownyAPI.getInstance().getResident(player);
+        if (resident != null && !resident.hasTown()) numOnlineNomads.decrementAndGet();
+    }
+
+    public void onResidentCreated() {
+        numResidents.incrementAndGet();
+        numNomads.incrementAndGet();
+    }
+
+    public void onResidentJoinedTown(Resident resident) {
+        numNomads.decrementAndGet();
+        if (resident.isOnline()) numOnlineNomads.decrementAndGet();
+    }
+
+    public void onResidentLeftTown(Resident resident) {
+        numNomads.incrementAndGet();
+        if (resident.isOnline()) numOnlineNomads.incrementAndGet();
+    }
+
+    public void onTownCreated() {
+        numTowns.incrementAndGet();
+    }
+
+    public void onTownDeleted() {
+        numTowns.decrementAndGet();
+    }
+
+    public void onNationCreated() {
+        numNations.incrementAndGet();
+    }
+
+    public void onNationDeleted() {
+        numNations.decrementAndGet();
+    }
+
+    public void onClaim() {
+        numTownBlocks.incrementAndGet();
+    }
+
+    public void onUnclaim() {
+        numTownBlocks.decrementAndGet();
+    }
+
+    public int getNumOnlineNomads() {
+        return numOnlineNomads.get();
+    }
+
+    public int getNumResidents() {
+        return numResidents.get();
+    }
+
+    public int getNumNomads() {
+        return numNomads.get();
+    }
+
+    public int getNumTowns() {
+        return numTowns.get();
+    }
+
+    public int getNumTownBlocks() {
+        return numTownBlocks.get();
+    }
+
+    public int getNumNations() {
+        return numNations.get();
+    }
+
+    /**
+     * @return the season details of every world RealisticSeasons has a date for, read at most once per tick
+     */
+    public List<WorldSeasonSnapshot> getSeasons() {
+        int tick = Bukkit.getCurrentTick();
+        CachedSeasons cached = seasons;
+        if (cached != null && cached.tick() == tick) return cached.seasons();
+
+        SeasonsAPI seasonsAPI = SeasonsAPI.getInstance();
+        List<WorldSeasonSnapshot> worldSeasons = new ArrayList<>();
+        for (World world : Bukkit.getWorlds()) {
+            WorldSeasonSnapshot worldSeason = WorldSeasonSnapshot.of(seasonsAPI, world);
+            if (worldSeason != null) worldSeasons.add(worldSeason);
+        }
+
+        worldSeasons = Collections.unmodifiableList(worldSeasons);
+        seasons = new CachedSeasons(tick, worldSeasons);
+        return worldSeasons;
+    }
+
+    private record CachedSeasons(int tick, List<WorldSeasonSnapshot> seasons) {}
+}
@@ -0,0 +1,140 @@
+package net.orbismc.omcapi.manager;
+
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+import net.orbismc.omcapi.object.snapshot.TownSnapshot;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders 256 by 256 pixel PNG tiles of claim ownership, coloured by nation.
+ * At the maximum zoom one pixel is one townblock, and each zoom level below it halves the resolution.
+ * Tiles are rendered on request threads from the latest snapshot, reading only the claims inside them, and cached until
+ * a published snapshot changes a town with claims inside them, so only the tiles touched by a claim, unclaim or colour
+ * change are rendered again. The cache keeps the most recently used tiles once it is full.
+ */
+public class TileManager implements SnapshotListener {
+
+    public static final int TILE_SIZE = 256;
+    private static final int DEFAULT_COLOR = 0x3FB4FF;
+    private static final int ALPHA = 0xA0 << 24;
+
+    private final SnapshotManager snapshotManager;
+    private final int maxZoom;
+    private final Map<TileKey, byte[]> tiles;
+
+    // Bumped on every publish, a tile rendered across a publish may be stale and is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public TileManager(SnapshotManager snapshotManager, int maxZoom, int maxCachedTiles) {
+        this.snapshotManager = snapshotManager;
+        this.maxZoom = maxZoom;
+
+        // Access ordered, so the least recently used tile is evicted, and guarded by itself
+        int capacity = Math.max(1, maxCachedTiles);
+        this.tiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, byte[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * @return the tile as a PNG
+     */
+    public byte[] getTile(String world, int zoom, int x, int y) {
+        TileKey key = new TileKey(world, zoom, x, y);
+        synchronized (tiles) {
+            byte[] cached = tiles.get(key);
+            if (cached != null) return cached;
+        }
+
+        // Rendered outside the lock, so encoding a tile never holds up other requests or an invalidation
+        long renderGeneration = generation.get();
+        byte[] rendered = render(key);
+
+        synchronized (tiles) {
+            if (generation.get() == renderGeneration) tiles.put(key, rendered);
+        }
+
+        return rendered;
+    }
+
+    @Override
+    public void onPublish(DataSnapshot previous, DataSnapshot current) {
+        synchronized (tiles) {
+            generation.incrementAndGet();
+            if (previous == null || tiles.isEmpty()) return;
+        }
+
+        Set<TileKey> changed = new HashSet<>();
+        for (TownSnapshot town : current.getTowns()) {
+            TownSnapshot previousTown = previous.getTown(town.getUUID());
+            if (previousTown == null) {
+                addTiles(changed, town);
+            } else if (previousTown.getTownBlocks() != town.getTownBlocks() || !Objects.equals(previousTown.getMapColor(), town.getMapColor())) {
+                addTiles(changed, previousTown);
+                addTiles(changed, town);
+            }
+        }
+
+        for (TownSnapshot previousTown : previous.getTowns()) {
+            if (current.getTown(previousTown.getUUID()) == null) addTiles(changed, previousTown);
+        }
+
+        synchronized (tiles) {
+            tiles.keySet().removeAll(changed);
+        }
+    }
+
+    private void addTiles(Set<TileKey> tileKeys, TownSnapshot town) {
+        for (Map.Entry<String, int[]> entry : town.getTownBlocks().entrySet()) {
+            int[] coords = entry.getValue();
+            for (int zoom = 0; zoom <= maxZoom; zoom++) {
+                int span = TILE_SIZE << (maxZoom - zoom);
+                for (int i = 0; i < coords.length; i += 2) {
+                    tileKeys.add(new TileKey(entry.getKey(), zoom, Math.floorDiv(coords[i], span), Math.floorDiv(coords[i + 1], span)));
+                }
+            }
+        }
+    }
+
+    private byte[] render(TileKey key) {
+        int shift = maxZoom - key.zoom();
+        int span = TILE_SIZE << shift;
+        int minX = key.x() * span;
+        int minZ = key.y() * span;
+
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        snapshotManager.getSnapshot().forEachTownBlockIn(key.world(), minX, minZ, minX + span - 1, minZ + span - 1, (x, z, town) -> {
+            int color = ALPHA | (town.getMapColor() == null ? DEFAULT_COLOR : town.getMapColor());
+            image.setRGB((x - minX) >> shift, (z - minZ) >> shift, color);
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toByteArray();
+    }
+
+    private record TileKey(String world, int zoom, int x, int y) {}
+}
@@ -0,0 +1,110 @@
+package net.orbismc.omcapi.manager;
+
+import net.orbismc.omcapi.object.balance.BalanceCache;
+import net.orbismc.omcapi.object.leaderboard.EntityLeaderboard;
+import net.orbismc.omcapi.object.snapshot.DataSnapshot;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import net.orbismc.omcapi.object.snapshot.NationSnapshot;
+import net.orbismc.omcapi.object.snapshot.ResidentSnapshot;
+import net.orbismc.omcapi.object.snapshot.SnapshotListener;
+import net.orbismc.omcapi.object.snapshot.TownSnapshot;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Keeps towns, nations and players ranked by balance, size and age for /leaderboards/{entity}/{metric}.
+ * Each published snapshot is diffed against the rankings, which only moves entities whose values changed, and balances
+ * are put as the balance cache refreshes them.
+ */
+public class TownyLeaderboardManager implements SnapshotListener {
+
+    public static final String TOWNS = "towns";
+    public static final String NATIONS = "nations";
+    public static final String PLAYERS = "players";
+
+    private final SnapshotManager snapshotManager;
+    private final Map<String, EntityLeaderboard<TownSnapshot>> towns = new LinkedHashMap<>();
+    private final Map<String, EntityLeaderboard<NationSnapshot>> nations = new LinkedHashMap<>();
+    private final Map<String, EntityLeaderboard<ResidentSnapshot>> players = new LinkedHashMap<>();
+
+    public TownyLeaderboardManager(SnapshotManager snapshotManager, BalanceManager balanceManager) {
+        this.snapshotManager = snapshotManager;
+
+        add(towns, new EntityLeaderboard<>("balance", false, false, null));
+        add(towns, new EntityLeaderboard<>("numTownBlocks", false, true, TownSnapshot::getNumTownBlocks));
+        add(towns, new EntityLeaderboard<>("numResidents", false, true, TownSnapshot::getNumResidents));
+        add(towns, new EntityLeaderboard<>("registered", true, true, TownSnapshot::getRegistered));
+
+        add(nations, new EntityLeaderboard<>("balance", false, false, null));
+        add(nations, new EntityLeaderboard<>("numTownBlocks", false, true, NationSnapshot::getNumTownBlocks));
+        add(nations, new EntityLeaderboard<>("numResidents", false, true, NationSnapshot::getNumResidents));
+        add(nations, new EntityLeaderboard<>("numTowns", false, true, NationSnapshot::getNumTowns));
+        add(nations, new EntityLeaderboard<>("registered", true, true, NationSnapshot::getRegistered));
+
+        add(players, new EntityLeaderboard<>("balance", false, false, null));
+        add(players, new EntityLeaderboard<>("registered", true, true, ResidentSnapshot::getRegistered));
+
+        trackBalances(balanceManager.getTowns(), towns.get("balance"), uuid -> snapshotManager.getSnapshot().getTown(uuid));
+        trackBalances(balanceManager.getNations(), nations.get("balance"), uuid -> snapshotManager.getSnapshot().getNation(uuid));
+        trackBalances(balanceManager.getPlayers(), players.get("balance"), uuid -> snapshotManager.getSnapshot().getResident(uuid));
+    }
+
+    /**
+     * @param entity one of {@link #TOWNS}, {@link #NATIONS} or {@link #PLAYERS}
+     * @return the leaderboard, or null if there is none for this entity and metric
+     */
+    public EntityLeaderboard<?> getLeaderboard(String entity, String metric) {
+        Map<String, ? extends EntityLeaderboard<?>> leaderboards = switch (entity) {
+            case TOWNS -> towns;
+            case NATIONS -> nations;
+            case PLAYERS -> players;
+            default -> Collections.<String, EntityLeaderboard<?>>emptyMap();
+        };
+
+        return leaderboards.get(metric);
+    }
+
+    @Override
+    public void onPublish(DataSnapshot previous, DataSnapshot current) {
+        // Entities can only have been deleted when their list changed
+        update(towns.values(), previous == null || previous.getTownListVersion() == current.getTownListVersion() ? null : previous.getTowns(), current.getTowns(), current::getTown);
+        update(nations.values(), previous == null || previous.getNationListVersion() == current.getNationListVersion() ? null : previous.getNations(), current.getNations(), current::getNation);
+        update(players.values(), previous == null || previous.getResidentListVersion() == current.getResidentListVersion() ? null : previous.getResidents(), current.getResidents(), current::getResident);
+    }
+
+    /**
+     * @param removable the previous list if entities may have been deleted since, otherwise null
+     */
+    private static <T extends NamedObject> void update(Iterable<EntityLeaderboard<T>> leaderboards, List<T> removable, List<T> current, Function<UUID, T> lookup) {
+        for (EntityLeaderboard<T> leaderboard : leaderboards) {
+            if (removable != null) {
+                for (T object : removable) {
+                    if (lookup.apply(object.getUUID()) == null) leaderboard.remove(object.getUUID());
+                }
+            }
+
+            // Putting an unchanged value is a hash lookup, only changed values touch the tree
+            if (leaderboard.isExtracted()) {
+                for (T object : current) {
+                    leaderboard.update(object);
+                }
+            }
+        }
+    }
+
+    private static <T extends NamedObject> void add(Map<String, EntityLeaderboard<T>> leaderboards, EntityLeaderboard<T> leaderboard) {
+        leaderboards.put(leaderboard.getMetric(), leaderboard);
+    }
+
+    private static void trackBalances(BalanceCache cache, EntityLeaderboard<?> leaderboard, Function<UUID, Object> lookup) {
+        cache.addUpdateHandler((uuid, balance) -> {
+            // A late refresh must not bring back an entity that has since been deleted
+            if (lookup.apply(uuid) != null) leaderboard.put(uuid, balance.amount());
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package net.orbismc.omcapi.manager;
+
+import net.orbismc.omcapi.OMCAPI;
+import org.bukkit.entity.Entity;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs reads of live server state that cannot come from a snapshot for request threads, on the thread that owns the
+ * entity they are about or on the global region thread otherwise. Reads submitted while a batch is waiting for its
+ * scheduler join that batch, so any number of concurrent requests costs one task per entity or one on the global
+ * region rather than one task each.
+ */
+public class WorldAccessManager {
+
+    private final OMCAPI plugin;
+    private final long timeoutMillis;
+    private final Batch global = new Batch(null);
+    private final Map<UUID, Batch> entities = new ConcurrentHashMap<>();
+
+    public WorldAccessManager(OMCAPI plugin) {
+        this.plugin = plugin;
+        this.timeoutMillis = Math.max(1, plugin.getConfig().getLong("behaviour.world_access_timeout_ms"));
+    }
+
+    /**
+     * Runs the read on the global region, completing exceptionally with a {@link TimeoutException} if it does not run in time
+     */
+    public <T> CompletableFuture<T> submit(Read<T> read) {
+        return global.add(read);
+    }
+
+    /**
+     * Runs the read on the entity's scheduler, or on the global region if the entity is removed before it runs
+     */
+    public <T> CompletableFuture<T> submit(Entity entity, Read<T> read) {
+        return entities.computeIfAbsent(entity.getUniqueId(), uuid -> new Batch(entity)).add(read);
+    }
+
+    public interface Read<T> {
+        T read() throws Throwable;
+    }
+
+    private record Pending<T>(Read<T> read, CompletableFuture<T> future) {
+
+        private void run() {
+            // Requests that already timed out or went away are not worth a read on the server thread
+            if (future.isDone()) return;
+
+            try {
+                future.complete(read.read());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private class Batch {
+
+        private final Entity entity;
+        private final Queue<Pending<?>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Batch(Entity entity) {
+            this.entity = entity;
+        }
+
+        private <T> CompletableFuture<T> add(Read<T> read) {
+            CompletableFuture<T> future = new CompletableFuture<T>().orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+            add(new Pending<>(read, future));
+            return future;
+        }
+
+        private void add(Pending<?> pending) {
+            queue.add(pending);
+
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    if (entity == null) plugin.getServer().getGlobalRegionScheduler().run(plugin, task -> flush());
+                    else if (entity.getScheduler().run(plugin, task -> flush(), this::retire) == null) retire();
+                } catch (RuntimeException e) {
+                    // The plugin is being disabled, nothing queued here will run
+                    scheduled.set(false);
+                    fail(e);
+                }
+            }
+        }
+
+        private void flush() {
+            // Cleared before draining, so a read added during the drain either runs now or schedules the next flush
+            scheduled.set(false);
+            if (entity != null) entities.remove(entity.getUniqueId(), this);
+
+            Pending<?> pending;
+            while ((pending = queue.poll()) != null) {
+                pending.run();
+            }
+        }
+
+        /**
+         * The entity was removed, such as a player logging out, so whatever is queued moves to the global region
+         */
+        private void retire() {
+            entities.remove(entity.getUniqueId(), this);
+            scheduled.set(false);
+
+            Pending<?> pending;
+            while ((pending = queue.poll()) != null) {
+                global.add(pending);
+            }
+        }
+
+        private void fail(Throwable e) {
+            Pending<?> pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future().completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package net.orbismc.omcapi.object.balance;
+
+/**
+ * A balance as it was when it was read from the economy
+ */
+public record Balance(double amount, long fetchedAt) {
+
+    /**
+     * @return how long ago the balance was read, in milliseconds
+     */
+    public long getAge() {
+        return System.currentTimeMillis() - fetchedAt;
+    }
+}
@@ -0,0 +1,165 @@
+package net.orbismc.omcapi.object.balance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Caches balances read through a slow economy. Balances older than the TTL are still served, and a refresh is started
+ * in the background. Balances that were never read are loaded in parallel for the whole batch before it is written,
+ * so writing a response never waits on the economy.
+ */
+public class BalanceCache {
+
+    private final ToDoubleFunction<UUID> fetcher;
+    private final ExecutorService executor;
+    private final long ttlMillis;
+    private final long fetchTimeoutMillis;
+    private final Map<UUID, Balance> balances = new ConcurrentHashMap<>();
+    private final Set<UUID> refreshing = ConcurrentHashMap.newKeySet();
+    private final List<BiConsumer<UUID, Balance>> updateHandlers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public BalanceCache(ToDoubleFunction<UUID> fetcher, ExecutorService executor, long ttlMillis, long fetchTimeoutMillis) {
+        this.fetcher = fetcher;
+        this.executor = executor;
+        this.ttlMillis = ttlMillis;
+        this.fetchTimeoutMillis = fetchTimeoutMillis;
+    }
+
+    /**
+     * Adds a handler that is called on the fetching thread whenever a balance is read from the economy
+     */
+    public void addUpdateHandler(BiConsumer<UUID, Balance> handler) {
+        updateHandlers.add(handler);
+    }
+
+    /**
+     * @return the cached balance, or null if it has not been read yet. Missing and stale balances are refreshed in the background.
+     */
+    public Balance peek(UUID uuid) {
+        Balance balance = balances.get(uuid);
+        if (balance == null || balance.getAge() > ttlMillis) refreshAsync(uuid);
+
+        return balance;
+    }
+
+    /**
+     * @return the cached balance, read from the economy on this thread if it has not been read yet. Stale balances are
+     * refreshed in the background.
+     */
+    public Balance get(UUID uuid) {
+        Balance balance = balances.get(uuid);
+        if (balance == null) return fetch(uuid);
+
+        if (balance.getAge() > ttlMillis) refreshAsync(uuid);
+        return balance;
+    }
+
+    /**
+     * Reads every balance that is not cached yet in parallel
+     * @return a future that completes once they have all been read, or after the fetch timeout. It never completes
+     * exceptionally, balances that failed or took too long are simply left out of the cache.
+     */
+    public CompletableFuture<Void> loadAll(Collection<UUID> uuids) {
+        List<CompletableFuture<Balance>> futures = new ArrayList<>();
+        for (UUID uuid : uuids) {
+            Balance balance = balances.get(uuid);
+            if (balance == null) futures.add(CompletableFuture.supplyAsync(() -> fetch(uuid), executor));
+            else if (balance.getAge() > ttlMillis) refreshAsync(uuid);
+        }
+
+        if (futures.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null)
+                .completeOnTimeout(null, fetchTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Refreshes up to limit balances that are missing or older than the TTL one by one on the given executor, kept
+     * apart from the one lookups load balances on so they never queue behind a sweep. Does nothing while the previous
+     * sweep is still running, so sweeps never pile up.
+     */
+    public void sweepStale(Collection<UUID> uuids, int limit, Executor sweepExecutor) {
+        if (!sweeping.compareAndSet(false, true)) return;
+
+        List<UUID> stale = new ArrayList<>(Math.min(limit, uuids.size()));
+        for (UUID uuid : uuids) {
+            if (stale.size() >= limit) break;
+
+            Balance balance = balances.get(uuid);
+            if ((balance == null || balance.getAge() > ttlMillis) && refreshing.add(uuid)) stale.add(uuid);
+        }
+
+        if (stale.isEmpty()) {
+            sweeping.set(false);
+            return;
+        }
+
+        try {
+            sweepExecutor.execute(() -> {
+                try {
+                    for (UUID uuid : stale) {
+                        try {
+                            fetch(uuid);
+                        } catch (RuntimeException ignored) {
+                            // Retried by a later sweep, or sooner if a lookup asks for it
+                        } finally {
+                            refreshing.remove(uuid);
+                        }
+                    }
+                } finally {
+                    sweeping.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // The executor is shutting down
+            refreshing.removeAll(stale);
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * Drops balances whose owners are gone
+     */
+    public void retainAll(Set<UUID> uuids) {
+        balances.keySet().retainAll(uuids);
+    }
+
+    private void refreshAsync(UUID uuid) {
+        if (!refreshing.add(uuid)) return;
+
+        executor.execute(() -> {
+            try {
+                fetch(uuid);
+            } catch (RuntimeException ignored) {
+                // The stale balance keeps being served until a refresh succeeds
+            } finally {
+                refreshing.remove(uuid);
+            }
+        });
+    }
+
+    private Balance fetch(UUID uuid) {
+        Balance balance = new Balance(fetcher.applyAsDouble(uuid), System.currentTimeMillis());
+        balances.put(uuid, balance);
+        for (BiConsumer<UUID, Balance> handler : updateHandlers) {
+            handler.accept(uuid, balance);
+        }
+
+        return balance;
+    }
+}
@@ -0,0 +1,7 @@
+package net.orbismc.omcapi.object.change;
+
+public enum ChangeAction {
+    CREATED,
+    UPDATED,
+    DELETED
+}
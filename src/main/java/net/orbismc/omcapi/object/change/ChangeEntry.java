@@ -0,0 +1,44 @@
+package net.orbismc.omcapi.object.change;
+
+import java.util.Set;
+import java.util.UUID;
+
+public class ChangeEntry {
+
+    private final long version;
+    private final ChangeType type;
+    private final ChangeAction action;
+    private final UUID uuid;
+    private final Set<String> fields;
+
+    public ChangeEntry(long version, ChangeType type, ChangeAction action, UUID uuid, Set<String> fields) {
+        this.version = version;
+        this.type = type;
+        this.action = action;
+        this.uuid = uuid;
+        this.fields = fields;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public ChangeAction getAction() {
+        return action;
+    }
+
+    public UUID getUUID() {
+        return uuid;
+    }
+
+    /**
+     * @return the response fields that changed, using the dotted paths of the POST endpoints
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+}
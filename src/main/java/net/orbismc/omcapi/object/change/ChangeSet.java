@@ -0,0 +1,40 @@
+package net.orbismc.omcapi.object.change;
+
+import java.util.List;
+
+/**
+ * The changes a client has missed since the version it last saw
+ */
+public class ChangeSet {
+
+    private final long version;
+    private final boolean resync;
+    private final List<ChangeEntry> changes;
+
+    public ChangeSet(long version, boolean resync, List<ChangeEntry> changes) {
+        this.version = version;
+        this.resync = resync;
+        this.changes = changes;
+    }
+
+    /**
+     * @return the latest version, which the client should ask for changes since next time
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true if the client fell too far behind and has to download everything again
+     */
+    public boolean isResync() {
+        return resync;
+    }
+
+    /**
+     * @return one entry per changed object, with the fields of every change since the requested version merged
+     */
+    public List<ChangeEntry> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,10 @@
+package net.orbismc.omcapi.object.change;
+
+/**
+ * The kind of Towny object a change refers to
+ */
+public enum ChangeType {
+    TOWN,
+    NATION,
+    RESIDENT
+}
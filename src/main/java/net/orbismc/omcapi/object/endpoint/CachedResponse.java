@@ -0,0 +1,89 @@
+package net.orbismc.omcapi.object.endpoint;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A fully encoded response body, kept alongside its gzip variant and a content-hash ETag for each.
+ * The gzip variant's ETag carries an encoding suffix, since the two bodies differ byte for byte.
+ */
+public class CachedResponse {
+
+    private final long version;
+    private final byte[] bytes;
+    private final byte[] gzipBytes;
+    private final String etag;
+    private final String gzipEtag;
+
+    public CachedResponse(long version, String body) {
+        this.version = version;
+        this.bytes = body.getBytes(StandardCharsets.UTF_8);
+        this.gzipBytes = gzip(bytes);
+        String hash = hash(bytes);
+        this.etag = "\"" + hash + "\"";
+        this.gzipEtag = "\"" + hash + "-gzip\"";
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the snapshot list version this response was built from
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public byte[] getGzipBytes() {
+        return gzipBytes;
+    }
+
+    public String getEtag(boolean gzip) {
+        return gzip ? gzipEtag : etag;
+    }
+
+    /**
+     * @param ifNoneMatch the value of a request's If-None-Match header, may be null
+     * @return true if the client already holds this exact body in the given encoding
+     */
+    public boolean matches(String ifNoneMatch, boolean gzip) {
+        if (ifNoneMatch == null) return false;
+
+        String etag = getEtag(gzip);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) candidate = candidate.substring(2);
+
+            if (candidate.equals("*") || candidate.equals(etag)) return true;
+        }
+
+        return false;
+    }
+}
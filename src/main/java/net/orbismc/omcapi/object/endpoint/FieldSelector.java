@@ -0,0 +1,68 @@
+package net.orbismc.omcapi.object.endpoint;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import io.javalin.http.BadRequestResponse;
+import net.orbismc.omcapi.util.JSONUtil;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The dotted field paths a POST lookup asked for, such as "stats.balance".
+ * Endpoints check it before writing a field so unrequested sections are never built.
+ */
+public final class FieldSelector {
+
+    public static final FieldSelector ALL = new FieldSelector(null, null, "");
+
+    private final Set<String> selected;
+    private final Set<String> partial;
+    private final String prefix;
+
+    private FieldSelector(Set<String> selected, Set<String> partial, String prefix) {
+        this.selected = selected;
+        this.partial = partial;
+        this.prefix = prefix;
+    }
+
+    /**
+     * @param fields the "fields" array of a request body, selects everything when null or empty
+     */
+    public static FieldSelector of(JsonArray fields) {
+        if (fields == null || fields.isEmpty()) return ALL;
+
+        Set<String> selected = new HashSet<>();
+        Set<String> partial = new HashSet<>();
+        for (JsonElement element : fields) {
+            String path = JSONUtil.getJsonElementAsStringOrNull(element);
+            if (path == null) throw new BadRequestResponse("Your fields selector contains a value that is not a string");
+
+            selected.add(path);
+            for (int i = path.indexOf('.'); i != -1; i = path.indexOf('.', i + 1)) {
+                partial.add(path.substring(0, i));
+            }
+        }
+
+        return new FieldSelector(selected, partial, "");
+    }
+
+    /**
+     * @return true if the field was selected, or one of the fields inside it was
+     */
+    public boolean includes(String field) {
+        if (selected == null) return true;
+
+        String path = prefix + field;
+        return selected.contains(path) || partial.contains(path);
+    }
+
+    /**
+     * @return the selector for the fields inside an object field
+     */
+    public FieldSelector nested(String field) {
+        if (selected == null || selected.contains(prefix + field)) return ALL;
+
+        return new FieldSelector(selected, partial, prefix + field + ".");
+    }
+}
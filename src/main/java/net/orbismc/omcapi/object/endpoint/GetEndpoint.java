@@ -2,9 +2,16 @@ package net.orbismc.omcapi.object.endpoint;
 
 import com.google.gson.JsonElement;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public abstract class GetEndpoint {
 
     public abstract String lookup();
 
+    public CompletableFuture<String> lookupAsync(Executor executor) {
+        return CompletableFuture.supplyAsync(this::lookup, executor);
+    }
+
     public abstract JsonElement getJsonElement();
 }
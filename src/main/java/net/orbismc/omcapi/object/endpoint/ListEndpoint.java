@@ -0,0 +1,38 @@
+package net.orbismc.omcapi.object.endpoint;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.gson.JsonArray;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import net.orbismc.omcapi.util.EndpointUtils;
+import net.orbismc.omcapi.util.JSONUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * A GET endpoint listing the name and UUID of every object of a type, either all at once or a page at a time
+ */
+public abstract class ListEndpoint extends GetEndpoint {
+
+    /**
+     * @return every object, sorted by UUID
+     */
+    public abstract List<? extends NamedObject> getObjects();
+
+    @Override
+    public String lookup() {
+        return getJsonElement().toString();
+    }
+
+    @Override
+    public JsonArray getJsonElement() {
+        return EndpointUtils.getNamedArray(getObjects());
+    }
+
+    public void writePage(PageRequest page, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            EndpointUtils.writeNamedPage(generator, getObjects(), page);
+        }
+    }
+}
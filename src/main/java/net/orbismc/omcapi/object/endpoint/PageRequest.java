@@ -0,0 +1,66 @@
+package net.orbismc.omcapi.object.endpoint;
+
+import io.javalin.http.BadRequestResponse;
+import net.orbismc.omcapi.util.UUIDUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * A page of a paginated response. Cursors are opaque to clients and hold the sort key of the last entry they were given,
+ * so pages stay consistent across snapshots instead of shifting when entries are added or removed.
+ */
+public final class PageRequest {
+
+    private final String after;
+    private final int limit;
+
+    private PageRequest(String after, int limit) {
+        this.after = after;
+        this.limit = limit;
+    }
+
+    /**
+     * @param cursor the cursor of the previous page, or null for the first page
+     * @param limit the requested page size, or null for the largest allowed
+     */
+    public static PageRequest of(String cursor, Integer limit, int maxLimit) {
+        if (limit != null && limit < 1) throw new BadRequestResponse("Invalid page limit provided");
+
+        String after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                after = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestResponse("Invalid cursor provided");
+            }
+        }
+
+        return new PageRequest(after, limit == null ? maxLimit : Math.min(limit, maxLimit));
+    }
+
+    public static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the sort key of the last entry of the previous page, or null for the first page
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    public UUID getAfterUUID() {
+        if (after == null) return null;
+
+        UUID uuid = UUIDUtil.parseOrNull(after);
+        if (uuid == null) throw new BadRequestResponse("Invalid cursor provided");
+
+        return uuid;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
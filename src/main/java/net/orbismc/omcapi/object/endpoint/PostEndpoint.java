@@ -1,33 +1,189 @@
 package net.orbismc.omcapi.object.endpoint;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import io.javalin.http.BadRequestResponse;
 import net.orbismc.omcapi.OMCAPI;
+import net.orbismc.omcapi.util.JSONUtil;
 
-public abstract class PostEndpoint<T> {
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 
-    public String lookup(JsonArray queryArray) {
-        JsonArray jsonArray = new JsonArray();
+public abstract class PostEndpoint<T> {
 
+    /**
+     * Resolves the query and waits for {@link #prepare} without holding a thread. Repeated elements are only resolved
+     * once. With a lookup executor the distinct elements are resolved on it in parallel, otherwise they are resolved as
+     * one batch on the calling thread, so an invalid query fails straight away. Nothing is serialised here, the caller
+     * streams the result with {@link #writeObjects} once it completes. Cancelling the returned future, for example
+     * when it times out, cancels whatever the lookup is still waiting on.
+     * @return the resolved objects in query order, with null for elements that match nothing
+     */
+    public CompletableFuture<List<T>> lookupAsync(JsonArray queryArray, FieldSelector fields) {
         int numLoops = Math.min(OMCAPI.instance.getConfig().getInt("behaviour.max_lookup_size"), queryArray.size());
+
+        Map<String, Integer> indexes = new HashMap<>();
+        List<JsonElement> distinct = new ArrayList<>();
+        int[] order = new int[numLoops];
         for (int i = 0; i < numLoops; i++) {
             JsonElement element = queryArray.get(i);
-            T object = getObjectOrNull(element);
+            order[i] = indexes.computeIfAbsent(getDedupKey(element), key -> {
+                distinct.add(element);
+                return distinct.size() - 1;
+            });
+        }
+
+        ExecutorService lookupExecutor = OMCAPI.instance.getLookupExecutor();
+        CompletableFuture<List<T>> resolved = lookupExecutor != null && distinct.size() > 1
+                ? supplyAll(distinct, this::getObjectOrNull, lookupExecutor)
+                : CompletableFuture.completedFuture(getObjects(distinct));
+
+        List<CompletableFuture<?>> pending = new CopyOnWriteArrayList<>();
+        pending.add(resolved);
+
+        CompletableFuture<List<T>> result = resolved.thenCompose(objects -> {
+            CompletableFuture<Void> prepared = prepare(objects, fields);
+            pending.add(prepared);
+
+            return prepared.thenApply(ignored -> {
+                List<T> ordered = new ArrayList<>(order.length);
+                for (int index : order) {
+                    ordered.add(objects.get(index));
+                }
+
+                return ordered;
+            });
+        });
+
+        result.whenComplete((objects, e) -> {
+            if (e != null) pending.forEach(future -> future.cancel(true));
+        });
 
-            JsonElement innerObject;
-            if (object == null) {
-                innerObject = null;
-            } else {
-                innerObject = getJsonElement(object);
+        return result;
+    }
+
+    /**
+     * Streams the objects as one JSON array with a single generator, so the response is never held in memory as a whole
+     */
+    public void writeObjects(List<T> objects, FieldSelector fields, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JSONUtil.createGenerator(outputStream)) {
+            generator.writeStartArray();
+
+            for (T object : objects) {
+                if (object == null) {
+                    generator.writeNull();
+                } else {
+                    writeJson(generator, object, fields);
+                }
             }
 
-            jsonArray.add(innerObject);
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Applies the function to every item on the executor, cancelling the remaining tasks if one of them fails
+     */
+    private static <A, B> CompletableFuture<List<B>> supplyAll(List<A> items, Function<A, B> function, Executor executor) {
+        List<CompletableFuture<B>> futures = new ArrayList<>(items.size());
+        for (A item : items) {
+            futures.add(CompletableFuture.supplyAsync(() -> function.apply(item), executor));
+        }
+
+        CompletableFuture<List<B>> all = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+        all.whenComplete((result, e) -> {
+            if (e != null) futures.forEach(future -> future.cancel(true));
+        });
+
+        return all;
+    }
+
+    /**
+     * Names are matched case-insensitively, so "Fix" and "fix" resolve to the same object
+     */
+    private static String getDedupKey(JsonElement element) {
+        if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+            return element.getAsString().toLowerCase(Locale.ROOT);
         }
 
-        return jsonArray.toString();
+        return element.toString();
     }
 
     public abstract T getObjectOrNull(JsonElement element);
 
+    /**
+     * Resolves a whole batch, with null for elements that match nothing. Endpoints can override this to resolve the
+     * batch in one go instead of element by element.
+     */
+    public List<T> getObjects(List<JsonElement> elements) {
+        List<T> objects = new ArrayList<>(elements.size());
+        for (JsonElement element : elements) {
+            objects.add(getObjectOrNull(element));
+        }
+
+        return objects;
+    }
+
+    /**
+     * Called with the resolved batch before it is written, so endpoints can load data the selected fields need in bulk
+     * instead of waiting for it while writing. The list may contain nulls.
+     * @return a future that completes once the data is loaded, it should not complete exceptionally
+     */
+    protected CompletableFuture<Void> prepare(List<T> objects, FieldSelector fields) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    protected static List<String> getQueryStrings(List<JsonElement> elements) {
+        List<String> strings = new ArrayList<>(elements.size());
+        for (JsonElement element : elements) {
+            String string = JSONUtil.getJsonElementAsStringOrNull(element);
+            if (string == null) throw new BadRequestResponse("Your query contains a value that is not a string");
+
+            strings.add(string);
+        }
+
+        return strings;
+    }
+
+    /**
+     * Writes the object field by field, skipping fields the selector leaves out.
+     * Endpoints that have not been ported to streaming fall back to streaming their full Gson tree.
+     */
+    public void writeJson(JsonGenerator generator, T object, FieldSelector fields) throws IOException {
+        JSONUtil.writeJsonElement(generator, getJsonElement(object));
+    }
+
+    /**
+     * Builds the object as a Gson tree with every field. Streaming endpoints can build it with {@link #toJsonElement}.
+     */
     public abstract JsonElement getJsonElement(T object);
+
+    /**
+     * Builds the Gson tree by parsing what {@link #writeJson} writes, for endpoints that only stream their output
+     */
+    protected JsonElement toJsonElement(T object) {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSONUtil.createGenerator(writer)) {
+            writeJson(generator, object, FieldSelector.ALL);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return JsonParser.parseString(writer.toString());
+    }
 }
@@ -0,0 +1,90 @@
+package net.orbismc.omcapi.object.leaderboard;
+
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import net.orbismc.omcapi.util.RankedSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Ranks towns, nations or players by one metric, keyed by UUID.
+ * Ascending metrics, such as the registration date, are stored negated so the smallest value ranks first.
+ */
+public class EntityLeaderboard<T extends NamedObject> {
+
+    private final String metric;
+    private final boolean ascending;
+    private final boolean integral;
+    private final ToDoubleFunction<T> extractor;
+    private final RankedSet<UUID> ranking = new RankedSet<>(0);
+
+    /**
+     * @param extractor reads the metric from a snapshot, or null if the values are put from elsewhere
+     */
+    public EntityLeaderboard(String metric, boolean ascending, boolean integral, ToDoubleFunction<T> extractor) {
+        this.metric = metric;
+        this.ascending = ascending;
+        this.integral = integral;
+        this.extractor = extractor;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    /**
+     * @return whether the metric is read from snapshots rather than put from elsewhere
+     */
+    public boolean isExtracted() {
+        return extractor != null;
+    }
+
+    public void update(T object) {
+        put(object.getUUID(), extractor.applyAsDouble(object));
+    }
+
+    public void put(UUID uuid, double value) {
+        ranking.put(uuid, ascending ? -value : value);
+    }
+
+    public void remove(UUID uuid) {
+        ranking.remove(uuid);
+    }
+
+    /**
+     * @return the 0-based rank, or -1 if the UUID is not ranked
+     */
+    public int rankOf(UUID uuid) {
+        return ranking.rankOf(uuid);
+    }
+
+    public Double getValue(UUID uuid) {
+        Double score = ranking.getScore(uuid);
+        return score == null || !ascending ? score : -score;
+    }
+
+    /**
+     * @return up to count entries starting at the given 0-based rank, with their metric values
+     */
+    public List<RankedSet.Entry<UUID>> getRange(int offset, int count) {
+        List<RankedSet.Entry<UUID>> entries = ranking.getRange(offset, count);
+        if (!ascending) return entries;
+
+        List<RankedSet.Entry<UUID>> values = new ArrayList<>(entries.size());
+        for (RankedSet.Entry<UUID> entry : entries) {
+            values.add(new RankedSet.Entry<>(entry.key(), -entry.score()));
+        }
+
+        return values;
+    }
+
+    public int size() {
+        return ranking.size();
+    }
+}
@@ -0,0 +1,11 @@
+package net.orbismc.omcapi.object.mcmmo;
+
+import net.orbismc.omcapi.manager.McMMOManager;
+
+import java.util.List;
+
+/**
+ * A player's skills as read from mcMMO on the server thread
+ * @param values the level, xp and xp to the next level of each skill, in that order
+ */
+public record SkillData(McMMOManager.Hooks hooks, List<String> skills, int powerLevel, int[] values) {}
@@ -1,11 +1,18 @@
 package net.orbismc.omcapi.object.mcmmo;
 
-import java.util.UUID;
+import net.orbismc.omcapi.util.UUIDUtil;
+import org.bukkit.OfflinePlayer;
+
+import java.util.concurrent.CompletableFuture;
 
 public class SkillsContext {
     private final String playerIdentifier; // Can be either a name or UUID
     private final boolean includeAllSkills;
 
+    // Filled in by SkillsEndpoint before the context is written
+    private OfflinePlayer player;
+    private CompletableFuture<SkillData> skillData;
+
     public SkillsContext(String playerIdentifier, boolean includeAllSkills) {
         this.playerIdentifier = playerIdentifier;
         this.includeAllSkills = includeAllSkills;
@@ -19,16 +26,27 @@ public class SkillsContext {
         return includeAllSkills;
     }
 
+    public OfflinePlayer getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return the pending mcMMO read, completing with null if mcMMO has no data for the player, or null if mcMMO is not enabled
+     */
+    public CompletableFuture<SkillData> getSkillData() {
+        return skillData;
+    }
+
+    public void prepare(OfflinePlayer player, CompletableFuture<SkillData> skillData) {
+        this.player = player;
+        this.skillData = skillData;
+    }
+
     /**
      * Check if the player identifier is a UUID
      * @return true if the playerIdentifier is a valid UUID
      */
     public boolean isUUID() {
-        try {
-            UUID.fromString(playerIdentifier);
-            return true;
-        } catch (IllegalArgumentException e) {
-            return false;
-        }
+        return UUIDUtil.isUUID(playerIdentifier);
     }
 }
\ No newline at end of file
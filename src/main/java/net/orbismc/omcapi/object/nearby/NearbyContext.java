@@ -8,22 +8,25 @@ public class NearbyContext {
     private final String targetString;
     private final Pair<Integer, Integer> targetCoordinate;
     private final NearbyType searchType;
-    private final int radius;
+    private final Integer radius;
+    private final Integer count;
 
-    public NearbyContext(NearbyType targetType, String target, NearbyType searchType, int radius) {
+    public NearbyContext(NearbyType targetType, String target, NearbyType searchType, Integer radius, Integer count) {
         this.targetType = targetType;
         this.targetString = target;
         this.targetCoordinate = null;
         this.searchType = searchType;
         this.radius = radius;
+        this.count = count;
     }
 
-    public NearbyContext(NearbyType targetType, Pair<Integer, Integer> targetCoordinate, NearbyType searchType, int radius) {
+    public NearbyContext(NearbyType targetType, Pair<Integer, Integer> targetCoordinate, NearbyType searchType, Integer radius, Integer count) {
         this.targetType = targetType;
         this.targetString = null;
         this.targetCoordinate = targetCoordinate;
         this.searchType = searchType;
         this.radius = radius;
+        this.count = count;
     }
 
     public NearbyType getTargetType() {
@@ -42,7 +45,17 @@ public class NearbyContext {
         return searchType;
     }
 
-    public int getRadius() {
+    /**
+     * @return the search radius in blocks, or null if a nearest search is not limited by distance
+     */
+    public Integer getRadius() {
         return radius;
     }
+
+    /**
+     * @return how many of the nearest towns to return, or null for every town within the radius
+     */
+    public Integer getCount() {
+        return count;
+    }
 }
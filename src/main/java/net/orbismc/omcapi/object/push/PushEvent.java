@@ -0,0 +1,29 @@
+package net.orbismc.omcapi.object.push;
+
+/**
+ * An event that has already been serialized, so it can be handed to every subscriber as is
+ */
+public class PushEvent {
+
+    private final PushTopic topic;
+    private final String name;
+    private final String data;
+
+    public PushEvent(PushTopic topic, String name, String data) {
+        this.topic = topic;
+        this.name = name;
+        this.data = data;
+    }
+
+    public PushTopic getTopic() {
+        return topic;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getData() {
+        return data;
+    }
+}
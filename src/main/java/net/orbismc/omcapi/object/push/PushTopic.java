@@ -0,0 +1,11 @@
+package net.orbismc.omcapi.object.push;
+
+/**
+ * The topics a push stream subscriber can filter on
+ */
+public enum PushTopic {
+    PLAYER,
+    TOWN,
+    NATION,
+    SERVER
+}
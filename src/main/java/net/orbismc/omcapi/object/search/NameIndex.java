@@ -0,0 +1,79 @@
+package net.orbismc.omcapi.object.search;
+
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import net.orbismc.omcapi.object.snapshot.SnapshotReference;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A case-insensitive, sorted index of names for prefix searches.
+ * Keys are the lowercased name followed by the UUID, so objects sharing a name are kept apart.
+ */
+public class NameIndex {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final NavigableMap<String, SnapshotReference> byKey = new ConcurrentSkipListMap<>();
+    private final Map<UUID, String> keysByUUID = new ConcurrentHashMap<>();
+
+    public void put(UUID uuid, String name) {
+        if (uuid == null || name == null) return;
+
+        String key = name.toLowerCase(Locale.ROOT) + SEPARATOR + uuid;
+        String previousKey = keysByUUID.put(uuid, key);
+        if (previousKey != null && !previousKey.equals(key)) byKey.remove(previousKey);
+
+        byKey.put(key, new SnapshotReference(name, uuid));
+    }
+
+    public void remove(UUID uuid) {
+        if (uuid == null) return;
+
+        String key = keysByUUID.remove(uuid);
+        if (key != null) byKey.remove(key);
+    }
+
+    /**
+     * @return up to limit objects whose name starts with the prefix, in alphabetical order
+     */
+    public List<SnapshotReference> search(String prefix, int limit) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        List<SnapshotReference> results = new ArrayList<>(Math.min(limit, 16));
+
+        for (SnapshotReference reference : byKey.tailMap(lowerPrefix, true).values()) {
+            if (results.size() == limit || !reference.getName().toLowerCase(Locale.ROOT).startsWith(lowerPrefix)) break;
+            results.add(reference);
+        }
+
+        return results;
+    }
+
+    /**
+     * Brings the index in line with a full list, only touching the entries that differ
+     */
+    public void reconcile(List<? extends NamedObject> objects) {
+        Set<UUID> present = new HashSet<>(objects.size() * 2);
+        for (NamedObject object : objects) {
+            present.add(object.getUUID());
+
+            SnapshotReference existing = byKey.get(keysByUUID.getOrDefault(object.getUUID(), ""));
+            if (existing == null || !existing.getName().equals(object.getName())) put(object.getUUID(), object.getName());
+        }
+
+        keysByUUID.keySet().removeIf(uuid -> {
+            if (present.contains(uuid)) return false;
+
+            byKey.remove(keysByUUID.get(uuid));
+            return true;
+        });
+    }
+}
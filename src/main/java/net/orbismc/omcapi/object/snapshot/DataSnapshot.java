@@ -0,0 +1,312 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import net.orbismc.omcapi.util.EndpointUtils;
+import net.orbismc.omcapi.util.LongIntHashMap;
+import net.orbismc.omcapi.util.UUIDUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An immutable view of the Towny and server data that endpoints serve from.
+ * Its objects may be copied a few ticks apart, but every change Towny reported an event for is reflected in all the
+ * objects it touches, so for example a town and its new resident agree about the membership.
+ */
+public class DataSnapshot {
+
+    private final long version;
+    private final long capturedAt;
+    private final int captureTicks;
+    private final ServerSnapshot server;
+
+    private final List<TownSnapshot> towns;
+    private final List<NationSnapshot> nations;
+    private final List<ResidentSnapshot> residents;
+
+    private final Map<UUID, TownSnapshot> townsByUUID;
+    private final Map<String, TownSnapshot> townsByName;
+    private final Map<UUID, NationSnapshot> nationsByUUID;
+    private final Map<String, NationSnapshot> nationsByName;
+    private final Map<UUID, ResidentSnapshot> residentsByUUID;
+    private final Map<String, ResidentSnapshot> residentsByName;
+
+    private final HomeBlockIndex homeBlockIndex;
+    private final Map<String, LongIntHashMap> townBlockOwners;
+
+    private final long townListVersion;
+    private final long nationListVersion;
+    private final long residentListVersion;
+
+    public DataSnapshot(long version, DataSnapshot previous, ServerSnapshot server, List<TownSnapshot> towns, List<NationSnapshot> nations, List<ResidentSnapshot> residents, int captureTicks) {
+        this.version = version;
+        this.capturedAt = System.currentTimeMillis();
+        this.captureTicks = captureTicks;
+        this.server = server;
+
+        // Sorted by UUID so list pages can be found with a binary search on the cursor
+        towns = EndpointUtils.sortedByUUID(towns);
+        nations = EndpointUtils.sortedByUUID(nations);
+        residents = EndpointUtils.sortedByUUID(residents);
+
+        this.towns = Collections.unmodifiableList(towns);
+        this.nations = Collections.unmodifiableList(nations);
+        this.residents = Collections.unmodifiableList(residents);
+
+        this.townsByUUID = new HashMap<>(towns.size() * 2);
+        this.townsByName = new HashMap<>(towns.size() * 2);
+        index(towns, townsByUUID, townsByName);
+
+        this.nationsByUUID = new HashMap<>(nations.size() * 2);
+        this.nationsByName = new HashMap<>(nations.size() * 2);
+        index(nations, nationsByUUID, nationsByName);
+
+        this.residentsByUUID = new HashMap<>(residents.size() * 2);
+        this.residentsByName = new HashMap<>(residents.size() * 2);
+        index(residents, residentsByUUID, residentsByName);
+
+        this.homeBlockIndex = new HomeBlockIndex(towns);
+        this.townBlockOwners = indexTownBlocks(towns);
+
+        // The list versions only move when a name or UUID changes, so caches of the list endpoints survive recaptures
+        this.townListVersion = previous != null && hasSameNames(previous.towns, towns) ? previous.townListVersion : version;
+        this.nationListVersion = previous != null && hasSameNames(previous.nations, nations) ? previous.nationListVersion : version;
+        this.residentListVersion = previous != null && hasSameNames(previous.residents, residents) ? previous.residentListVersion : version;
+    }
+
+    /**
+     * Maps every claimed townblock to the index of its town in the town list, per world.
+     * Each world's map is presized with that world's own claim count.
+     */
+    private static Map<String, LongIntHashMap> indexTownBlocks(List<TownSnapshot> towns) {
+        Map<String, Integer> worldSizes = new HashMap<>();
+        for (TownSnapshot town : towns) {
+            for (Map.Entry<String, int[]> entry : town.getTownBlocks().entrySet()) {
+                worldSizes.merge(entry.getKey(), entry.getValue().length / 2, Integer::sum);
+            }
+        }
+
+        Map<String, LongIntHashMap> townBlockOwners = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : worldSizes.entrySet()) {
+            townBlockOwners.put(entry.getKey(), new LongIntHashMap(entry.getValue()));
+        }
+
+        for (int i = 0; i < towns.size(); i++) {
+            for (Map.Entry<String, int[]> entry : towns.get(i).getTownBlocks().entrySet()) {
+                LongIntHashMap owners = townBlockOwners.get(entry.getKey());
+
+                int[] coords = entry.getValue();
+                for (int j = 0; j < coords.length; j += 2) {
+                    owners.put(townBlockKey(coords[j], coords[j + 1]), i);
+                }
+            }
+        }
+
+        return townBlockOwners;
+    }
+
+    public static long townBlockKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static boolean hasSameNames(List<? extends NamedObject> previous, List<? extends NamedObject> current) {
+        if (previous.size() != current.size()) return false;
+
+        for (int i = 0; i < current.size(); i++) {
+            NamedObject previousObject = previous.get(i);
+            NamedObject currentObject = current.get(i);
+            if (!previousObject.getUUID().equals(currentObject.getUUID()) || !previousObject.getName().equals(currentObject.getName())) return false;
+        }
+
+        return true;
+    }
+
+    private static <T extends NamedObject> void index(List<T> objects, Map<UUID, T> byUUID, Map<String, T> byName) {
+        for (T object : objects) {
+            byUUID.put(object.getUUID(), object);
+            byName.put(object.getName().toLowerCase(Locale.ROOT), object);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    /**
+     * @return how many ticks the capture of this snapshot was spread over
+     */
+    public int getCaptureTicks() {
+        return captureTicks;
+    }
+
+    /**
+     * @return how many milliseconds ago this snapshot was taken
+     */
+    public long getAge() {
+        return System.currentTimeMillis() - capturedAt;
+    }
+
+    /**
+     * @return the version of the snapshot in which the list of town names and UUIDs last changed
+     */
+    public long getTownListVersion() {
+        return townListVersion;
+    }
+
+    /**
+     * @return the version of the snapshot in which the list of nation names and UUIDs last changed
+     */
+    public long getNationListVersion() {
+        return nationListVersion;
+    }
+
+    /**
+     * @return the version of the snapshot in which the list of resident names and UUIDs last changed
+     */
+    public long getResidentListVersion() {
+        return residentListVersion;
+    }
+
+    public ServerSnapshot getServer() {
+        return server;
+    }
+
+    public List<TownSnapshot> getTowns() {
+        return towns;
+    }
+
+    public List<NationSnapshot> getNations() {
+        return nations;
+    }
+
+    public List<ResidentSnapshot> getResidents() {
+        return residents;
+    }
+
+    public HomeBlockIndex getHomeBlockIndex() {
+        return homeBlockIndex;
+    }
+
+    /**
+     * @param x the townblock x coordinate
+     * @param z the townblock z coordinate
+     * @return the town that has claimed the townblock, or null if it is wilderness
+     */
+    public TownSnapshot getTownAt(String world, int x, int z) {
+        LongIntHashMap owners = townBlockOwners.get(world);
+        if (owners == null) return null;
+
+        int index = owners.get(townBlockKey(x, z), -1);
+        return index == -1 ? null : towns.get(index);
+    }
+
+    /**
+     * Calls the consumer with every claimed townblock in the range, both ends inclusive. The range is probed block by
+     * block when that is cheaper than walking every claim in the world, so small ranges never touch unrelated claims.
+     */
+    public void forEachTownBlockIn(String world, int minX, int minZ, int maxX, int maxZ, TownBlockConsumer consumer) {
+        LongIntHashMap owners = townBlockOwners.get(world);
+        if (owners == null || minX > maxX || minZ > maxZ) return;
+
+        long area = ((long) maxX - minX + 1) * ((long) maxZ - minZ + 1);
+        if (area <= owners.size()) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    int index = owners.get(townBlockKey(x, z), -1);
+                    if (index != -1) consumer.accept(x, z, towns.get(index));
+                }
+            }
+            return;
+        }
+
+        owners.forEach((key, index) -> {
+            int x = (int) (key >> 32);
+            int z = (int) key;
+            if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) consumer.accept(x, z, towns.get(index));
+        });
+    }
+
+    /**
+     * @param identifier a UUID, or a name in any case
+     */
+    public TownSnapshot resolveTown(String identifier) {
+        UUID uuid = UUIDUtil.parseOrNull(identifier);
+        return uuid != null ? getTown(uuid) : getTown(identifier);
+    }
+
+    public NationSnapshot resolveNation(String identifier) {
+        UUID uuid = UUIDUtil.parseOrNull(identifier);
+        return uuid != null ? getNation(uuid) : getNation(identifier);
+    }
+
+    public ResidentSnapshot resolveResident(String identifier) {
+        UUID uuid = UUIDUtil.parseOrNull(identifier);
+        return uuid != null ? getResident(uuid) : getResident(identifier);
+    }
+
+    /**
+     * Resolves a batch of identifiers against this snapshot, with null for those that match nothing
+     */
+    public List<TownSnapshot> resolveTowns(List<String> identifiers) {
+        List<TownSnapshot> towns = new ArrayList<>(identifiers.size());
+        for (String identifier : identifiers) {
+            towns.add(resolveTown(identifier));
+        }
+
+        return towns;
+    }
+
+    public List<NationSnapshot> resolveNations(List<String> identifiers) {
+        List<NationSnapshot> nations = new ArrayList<>(identifiers.size());
+        for (String identifier : identifiers) {
+            nations.add(resolveNation(identifier));
+        }
+
+        return nations;
+    }
+
+    public List<ResidentSnapshot> resolveResidents(List<String> identifiers) {
+        List<ResidentSnapshot> residents = new ArrayList<>(identifiers.size());
+        for (String identifier : identifiers) {
+            residents.add(resolveResident(identifier));
+        }
+
+        return residents;
+    }
+
+    public TownSnapshot getTown(UUID uuid) {
+        return townsByUUID.get(uuid);
+    }
+
+    public TownSnapshot getTown(String name) {
+        return townsByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public NationSnapshot getNation(UUID uuid) {
+        return nationsByUUID.get(uuid);
+    }
+
+    public NationSnapshot getNation(String name) {
+        return nationsByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public ResidentSnapshot getResident(UUID uuid) {
+        return residentsByUUID.get(uuid);
+    }
+
+    public ResidentSnapshot getResident(String name) {
+        return residentsByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public interface TownBlockConsumer {
+        void accept(int x, int z, TownSnapshot town);
+    }
+}
@@ -0,0 +1,185 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A per-world grid over town homeblocks, answering radius and nearest-k queries without scanning every town.
+ * All coordinates and distances are in townblocks.
+ */
+public class HomeBlockIndex {
+
+    // Each cell covers 16x16 townblocks
+    private static final int CELL_SHIFT = 4;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private final Map<String, WorldGrid> worlds = new HashMap<>();
+
+    public HomeBlockIndex(List<TownSnapshot> towns) {
+        for (TownSnapshot town : towns) {
+            if (town.getHomeBlockWorld() == null) continue;
+
+            worlds.computeIfAbsent(town.getHomeBlockWorld(), world -> new WorldGrid()).add(town);
+        }
+    }
+
+    /**
+     * @return the towns whose homeblock is within the radius, nearest first
+     */
+    public List<TownSnapshot> getWithinRadius(String world, int x, int z, double radius, TownSnapshot exclude) {
+        WorldGrid grid = worlds.get(world);
+        if (grid == null || radius < 0) return Collections.emptyList();
+
+        int minCellX = Math.max(grid.minCellX, (int) Math.floor((x - radius) / CELL_SIZE));
+        int maxCellX = Math.min(grid.maxCellX, (int) Math.floor((x + radius) / CELL_SIZE));
+        int minCellZ = Math.max(grid.minCellZ, (int) Math.floor((z - radius) / CELL_SIZE));
+        int maxCellZ = Math.min(grid.maxCellZ, (int) Math.floor((z + radius) / CELL_SIZE));
+
+        double radiusSquared = radius * radius;
+        List<Candidate> candidates = new ArrayList<>();
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                List<TownSnapshot> cell = grid.cells.get(cellKey(cellX, cellZ));
+                if (cell == null) continue;
+
+                for (TownSnapshot town : cell) {
+                    if (town == exclude) continue;
+
+                    long distanceSquared = distanceSquared(town, x, z);
+                    if (distanceSquared <= radiusSquared) candidates.add(new Candidate(town, distanceSquared));
+                }
+            }
+        }
+
+        candidates.sort(Comparator.comparingLong(Candidate::distanceSquared));
+        return toTowns(candidates);
+    }
+
+    /**
+     * @return up to count towns with the closest homeblocks, nearest first, optionally limited to a maximum radius
+     */
+    public List<TownSnapshot> getNearest(String world, int x, int z, int count, double maxRadius, TownSnapshot exclude) {
+        WorldGrid grid = worlds.get(world);
+        if (grid == null || count <= 0) return Collections.emptyList();
+
+        // Max-heap on distance, so the furthest of the current best candidates is at the head
+        PriorityQueue<Candidate> nearest = new PriorityQueue<>(count + 1, Comparator.comparingLong(Candidate::distanceSquared).reversed());
+        double maxRadiusSquared = maxRadius * maxRadius;
+
+        int centreCellX = x >> CELL_SHIFT;
+        int centreCellZ = z >> CELL_SHIFT;
+        int maxRing = Math.max(
+                Math.max(Math.abs(centreCellX - grid.minCellX), Math.abs(centreCellX - grid.maxCellX)),
+                Math.max(Math.abs(centreCellZ - grid.minCellZ), Math.abs(centreCellZ - grid.maxCellZ)));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every homeblock outside the rings searched so far is at least this far away
+            double ringDistance = ringDistance(x, z, ring);
+            if (ringDistance > maxRadius) break;
+            if (nearest.size() == count && Math.sqrt(nearest.peek().distanceSquared()) <= ringDistance) break;
+
+            for (long cellKey : ringCellKeys(centreCellX, centreCellZ, ring)) {
+                List<TownSnapshot> cell = grid.cells.get(cellKey);
+                if (cell == null) continue;
+
+                for (TownSnapshot town : cell) {
+                    if (town == exclude) continue;
+
+                    long distanceSquared = distanceSquared(town, x, z);
+                    if (distanceSquared > maxRadiusSquared) continue;
+
+                    if (nearest.size() < count) {
+                        nearest.add(new Candidate(town, distanceSquared));
+                    } else if (distanceSquared < nearest.peek().distanceSquared()) {
+                        nearest.poll();
+                        nearest.add(new Candidate(town, distanceSquared));
+                    }
+                }
+            }
+        }
+
+        List<Candidate> candidates = new ArrayList<>(nearest);
+        candidates.sort(Comparator.comparingLong(Candidate::distanceSquared));
+        return toTowns(candidates);
+    }
+
+    /**
+     * @return the shortest distance from the point to any townblock in the given ring of cells around the point's cell
+     */
+    static int ringDistance(int x, int z, int ring) {
+        if (ring == 0) return 0;
+
+        // The point's offset inside its cell decides how close the inner edge of the ring is on each side
+        int offsetX = x & (CELL_SIZE - 1);
+        int offsetZ = z & (CELL_SIZE - 1);
+        int inner = (ring - 1) * CELL_SIZE;
+
+        return Math.min(
+                Math.min(inner + offsetX + 1, inner + CELL_SIZE - offsetX),
+                Math.min(inner + offsetZ + 1, inner + CELL_SIZE - offsetZ));
+    }
+
+    private static List<Long> ringCellKeys(int centreCellX, int centreCellZ, int ring) {
+        if (ring == 0) return List.of(cellKey(centreCellX, centreCellZ));
+
+        List<Long> cellKeys = new ArrayList<>(ring * 8);
+        for (int dx = -ring; dx <= ring; dx++) {
+            cellKeys.add(cellKey(centreCellX + dx, centreCellZ - ring));
+            cellKeys.add(cellKey(centreCellX + dx, centreCellZ + ring));
+        }
+        for (int dz = -ring + 1; dz <= ring - 1; dz++) {
+            cellKeys.add(cellKey(centreCellX - ring, centreCellZ + dz));
+            cellKeys.add(cellKey(centreCellX + ring, centreCellZ + dz));
+        }
+
+        return cellKeys;
+    }
+
+    private static long distanceSquared(TownSnapshot town, int x, int z) {
+        long dx = town.getHomeBlockX() - x;
+        long dz = town.getHomeBlockZ() - z;
+        return dx * dx + dz * dz;
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static List<TownSnapshot> toTowns(List<Candidate> candidates) {
+        List<TownSnapshot> towns = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            towns.add(candidate.town());
+        }
+
+        return towns;
+    }
+
+    private record Candidate(TownSnapshot town, long distanceSquared) {
+    }
+
+    private static class WorldGrid {
+
+        private final Map<Long, List<TownSnapshot>> cells = new HashMap<>();
+        private int minCellX = Integer.MAX_VALUE;
+        private int minCellZ = Integer.MAX_VALUE;
+        private int maxCellX = Integer.MIN_VALUE;
+        private int maxCellZ = Integer.MIN_VALUE;
+
+        private void add(TownSnapshot town) {
+            int cellX = town.getHomeBlockX() >> CELL_SHIFT;
+            int cellZ = town.getHomeBlockZ() >> CELL_SHIFT;
+
+            cells.computeIfAbsent(cellKey(cellX, cellZ), key -> new ArrayList<>()).add(town);
+
+            minCellX = Math.min(minCellX, cellX);
+            minCellZ = Math.min(minCellZ, cellZ);
+            maxCellX = Math.max(maxCellX, cellX);
+            maxCellZ = Math.max(maxCellZ, cellZ);
+        }
+    }
+}
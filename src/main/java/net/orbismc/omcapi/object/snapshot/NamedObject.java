@@ -0,0 +1,13 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import java.util.UUID;
+
+/**
+ * Anything in a snapshot that can be referred to by a name and UUID
+ */
+public interface NamedObject {
+
+    String getName();
+
+    UUID getUUID();
+}
@@ -0,0 +1,151 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import com.palmergames.bukkit.towny.object.Nation;
+import com.palmergames.bukkit.towny.object.Resident;
+import com.palmergames.bukkit.towny.permissions.TownyPerms;
+import net.orbismc.omcapi.util.EndpointUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An immutable copy of a nation, taken on the server thread
+ */
+public class NationSnapshot implements NamedObject {
+
+    private final String name;
+    private final UUID uuid;
+    private final String board;
+    private final SnapshotReference king;
+    private final SnapshotReference capital;
+
+    private final long registered;
+
+    private final boolean isPublic;
+    private final boolean isOpen;
+    private final boolean isNeutral;
+
+    private final int numTownBlocks;
+    private final int numResidents;
+    private final int numTowns;
+
+    private final SpawnSnapshot spawn;
+    private final List<SnapshotReference> residents;
+    private final List<SnapshotReference> towns;
+    private final List<SnapshotReference> allies;
+    private final List<SnapshotReference> enemies;
+    private final List<SnapshotReference> sanctioned;
+    private final Map<String, List<String>> ranks;
+
+    public NationSnapshot(Nation nation) {
+        this.name = nation.getName();
+        this.uuid = nation.getUUID();
+        this.board = nation.getBoard().isEmpty() ? null : nation.getBoard();
+        this.king = SnapshotReference.of(nation.getKing());
+        this.capital = SnapshotReference.of(nation.getCapital());
+
+        this.registered = nation.getRegistered();
+
+        this.isPublic = nation.isPublic();
+        this.isOpen = nation.isOpen();
+        this.isNeutral = nation.isNeutral();
+
+        this.numTownBlocks = nation.getNumTownblocks();
+        this.numResidents = nation.getNumResidents();
+        this.numTowns = nation.getNumTowns();
+
+        this.spawn = SpawnSnapshot.of(nation.getSpawnOrNull());
+        this.residents = SnapshotReference.ofResidents(nation.getResidents());
+        this.towns = SnapshotReference.ofTowns(nation.getTowns());
+        this.allies = SnapshotReference.ofNations(nation.getAllies());
+        this.enemies = SnapshotReference.ofNations(nation.getEnemies());
+        this.sanctioned = SnapshotReference.ofTowns(nation.getSanctionedTowns());
+
+        Map<String, List<String>> ranks = new LinkedHashMap<>();
+        for (String rank : TownyPerms.getNationRanks()) {
+            ranks.put(rank, EndpointUtils.getNationRank(nation, rank).stream().map(Resident::getName).toList());
+        }
+        this.ranks = Collections.unmodifiableMap(ranks);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public UUID getUUID() {
+        return uuid;
+    }
+
+    public String getBoard() {
+        return board;
+    }
+
+    public SnapshotReference getKing() {
+        return king;
+    }
+
+    public SnapshotReference getCapital() {
+        return capital;
+    }
+
+    public long getRegistered() {
+        return registered;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    public boolean isNeutral() {
+        return isNeutral;
+    }
+
+    public int getNumTownBlocks() {
+        return numTownBlocks;
+    }
+
+    public int getNumResidents() {
+        return numResidents;
+    }
+
+    public int getNumTowns() {
+        return numTowns;
+    }
+
+    public SpawnSnapshot getSpawn() {
+        return spawn;
+    }
+
+    public List<SnapshotReference> getResidents() {
+        return residents;
+    }
+
+    public List<SnapshotReference> getTowns() {
+        return towns;
+    }
+
+    public List<SnapshotReference> getAllies() {
+        return allies;
+    }
+
+    public List<SnapshotReference> getEnemies() {
+        return enemies;
+    }
+
+    public List<SnapshotReference> getSanctioned() {
+        return sanctioned;
+    }
+
+    public Map<String, List<String>> getRanks() {
+        return ranks;
+    }
+}
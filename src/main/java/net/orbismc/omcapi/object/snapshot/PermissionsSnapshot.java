@@ -0,0 +1,62 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import com.palmergames.bukkit.towny.object.TownyPermission;
+
+public class PermissionsSnapshot {
+
+    /**
+     * The permission levels in the order they are serialized
+     */
+    public static final TownyPermission.PermLevel[] PERM_LEVELS = {
+            TownyPermission.PermLevel.RESIDENT,
+            TownyPermission.PermLevel.NATION,
+            TownyPermission.PermLevel.ALLY,
+            TownyPermission.PermLevel.OUTSIDER
+    };
+
+    private final boolean[][] perms;
+    private final boolean pvp;
+    private final boolean explosion;
+    private final boolean fire;
+    private final boolean mobs;
+
+    public PermissionsSnapshot(TownyPermission permissions) {
+        TownyPermission.ActionType[] actionTypes = TownyPermission.ActionType.values();
+        this.perms = new boolean[actionTypes.length][PERM_LEVELS.length];
+
+        for (TownyPermission.ActionType actionType : actionTypes) {
+            for (int i = 0; i < PERM_LEVELS.length; i++) {
+                perms[actionType.ordinal()][i] = permissions.getPerm(PERM_LEVELS[i], actionType);
+            }
+        }
+
+        this.pvp = permissions.pvp;
+        this.explosion = permissions.explosion;
+        this.fire = permissions.fire;
+        this.mobs = permissions.mobs;
+    }
+
+    public boolean getPerm(TownyPermission.PermLevel permLevel, TownyPermission.ActionType actionType) {
+        for (int i = 0; i < PERM_LEVELS.length; i++) {
+            if (PERM_LEVELS[i] == permLevel) return perms[actionType.ordinal()][i];
+        }
+
+        return false;
+    }
+
+    public boolean isPvp() {
+        return pvp;
+    }
+
+    public boolean isExplosion() {
+        return explosion;
+    }
+
+    public boolean isFire() {
+        return fire;
+    }
+
+    public boolean isMobs() {
+        return mobs;
+    }
+}
@@ -0,0 +1,150 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import com.palmergames.bukkit.towny.object.Resident;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An immutable copy of a resident, taken on the server thread
+ */
+public class ResidentSnapshot implements NamedObject {
+
+    private final String name;
+    private final UUID uuid;
+    private final String title;
+    private final String surname;
+    private final String formattedName;
+    private final String about;
+    private final SnapshotReference town;
+    private final SnapshotReference nation;
+
+    private final long registered;
+    private final Long joinedTownAt;
+    private final Long lastOnline;
+
+    private final boolean isOnline;
+    private final boolean isNPC;
+    private final boolean isMayor;
+    private final boolean isKing;
+    private final boolean hasTown;
+    private final boolean hasNation;
+
+    private final PermissionsSnapshot perms;
+    private final List<String> townRanks;
+    private final List<String> nationRanks;
+    private final List<SnapshotReference> friends;
+
+    public ResidentSnapshot(Resident resident) {
+        this.name = resident.getName();
+        this.uuid = resident.getUUID();
+        this.title = resident.getTitle().isEmpty() ? null : resident.getTitle();
+        this.surname = resident.getSurname().isEmpty() ? null : resident.getSurname();
+        this.formattedName = resident.getFormattedName();
+        this.about = resident.getAbout().isEmpty() ? null : resident.getAbout();
+        this.town = SnapshotReference.of(resident.getTownOrNull());
+        this.nation = SnapshotReference.of(resident.getNationOrNull());
+
+        this.registered = resident.getRegistered();
+        this.joinedTownAt = resident.hasTown() ? resident.getJoinedTownAt() : null;
+        this.lastOnline = resident.getLastOnline() != 0 ? resident.getLastOnline() : null;
+
+        this.isOnline = resident.isOnline();
+        this.isNPC = resident.isNPC();
+        this.isMayor = resident.isMayor();
+        this.isKing = resident.isKing();
+        this.hasTown = resident.hasTown();
+        this.hasNation = resident.hasNation();
+
+        this.perms = new PermissionsSnapshot(resident.getPermissions());
+        this.townRanks = List.copyOf(resident.getTownRanks());
+        this.nationRanks = List.copyOf(resident.getNationRanks());
+        this.friends = SnapshotReference.ofResidents(resident.getFriends());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public UUID getUUID() {
+        return uuid;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    public String getFormattedName() {
+        return formattedName;
+    }
+
+    public String getAbout() {
+        return about;
+    }
+
+    public SnapshotReference getTown() {
+        return town;
+    }
+
+    public SnapshotReference getNation() {
+        return nation;
+    }
+
+    public long getRegistered() {
+        return registered;
+    }
+
+    public Long getJoinedTownAt() {
+        return joinedTownAt;
+    }
+
+    public Long getLastOnline() {
+        return lastOnline;
+    }
+
+    public boolean isOnline() {
+        return isOnline;
+    }
+
+    public boolean isNPC() {
+        return isNPC;
+    }
+
+    public boolean isMayor() {
+        return isMayor;
+    }
+
+    public boolean isKing() {
+        return isKing;
+    }
+
+    public boolean hasTown() {
+        return hasTown;
+    }
+
+    public boolean hasNation() {
+        return hasNation;
+    }
+
+    public PermissionsSnapshot getPerms() {
+        return perms;
+    }
+
+    public List<String> getTownRanks() {
+        return townRanks;
+    }
+
+    public List<String> getNationRanks() {
+        return nationRanks;
+    }
+
+    public List<SnapshotReference> getFriends() {
+        return friends;
+    }
+}
@@ -0,0 +1,151 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import com.palmergames.bukkit.towny.TownySettings;
+import net.orbismc.omcapi.manager.StatsManager;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.util.List;
+
+/**
+ * An immutable copy of the server and overworld state, taken on the server thread.
+ * The Towny counts and season details come from the stats manager rather than being counted here.
+ */
+public class ServerSnapshot {
+
+    private final String version;
+    private final String defaultWorld;
+    private final int townBlockSize;
+    private final String moonPhase;
+    private final long newDayTime;
+
+    private final boolean hasStorm;
+    private final boolean isThundering;
+    private final boolean isSnowing;
+
+    private final long time;
+    private final long fullTime;
+    private final int maxPlayers;
+    private final int numOnlinePlayers;
+    private final int numOnlineNomads;
+    private final int numResidents;
+    private final int numNomads;
+    private final int numTowns;
+    private final int numTownBlocks;
+    private final int numNations;
+
+    private final List<WorldSeasonSnapshot> seasons;
+
+    public ServerSnapshot(StatsManager stats) {
+        World overworld = Bukkit.getWorlds().stream()
+                .filter(world -> world.getEnvironment() == World.Environment.NORMAL)
+                .findFirst()
+                .orElse(Bukkit.getWorlds().get(0));
+
+        this.version = Bukkit.getMinecraftVersion();
+        this.defaultWorld = Bukkit.getWorlds().get(0).getName();
+        this.townBlockSize = TownySettings.getTownBlockSize();
+        this.moonPhase = overworld.getMoonPhase().toString();
+        this.newDayTime = TownySettings.getNewDayTime();
+
+        this.seasons = stats.getSeasons();
+
+        boolean isWinter = false;
+        for (WorldSeasonSnapshot worldSeason : seasons) {
+            if (worldSeason.getWorldName().equals(overworld.getName())) isWinter = worldSeason.getCurrentSeason().equalsIgnoreCase("Winter");
+        }
+        this.hasStorm = overworld.hasStorm();
+        this.isThundering = overworld.isThundering();
+        this.isSnowing = isWinter && (hasStorm || isThundering);
+
+        this.time = overworld.getTime();
+        this.fullTime = overworld.getFullTime();
+        this.maxPlayers = Bukkit.getMaxPlayers();
+        this.numOnlinePlayers = Bukkit.getOnlinePlayers().size();
+        this.numOnlineNomads = stats.getNumOnlineNomads();
+        this.numResidents = stats.getNumResidents();
+        this.numNomads = stats.getNumNomads();
+        this.numTowns = stats.getNumTowns();
+        this.numTownBlocks = stats.getNumTownBlocks();
+        this.numNations = stats.getNumNations();
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the name of the world that coordinate-only queries refer to
+     */
+    public String getDefaultWorld() {
+        return defaultWorld;
+    }
+
+    public int getTownBlockSize() {
+        return townBlockSize;
+    }
+
+    public String getMoonPhase() {
+        return moonPhase;
+    }
+
+    public long getNewDayTime() {
+        return newDayTime;
+    }
+
+    public boolean hasStorm() {
+        return hasStorm;
+    }
+
+    public boolean isThundering() {
+        return isThundering;
+    }
+
+    public boolean isSnowing() {
+        return isSnowing;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public long getFullTime() {
+        return fullTime;
+    }
+
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    public int getNumOnlinePlayers() {
+        return numOnlinePlayers;
+    }
+
+    public int getNumOnlineNomads() {
+        return numOnlineNomads;
+    }
+
+    public int getNumResidents() {
+        return numResidents;
+    }
+
+    public int getNumNomads() {
+        return numNomads;
+    }
+
+    public int getNumTowns() {
+        return numTowns;
+    }
+
+    public int getNumTownBlocks() {
+        return numTownBlocks;
+    }
+
+    public int getNumNations() {
+        return numNations;
+    }
+
+    public List<WorldSeasonSnapshot> getSeasons() {
+        return seasons;
+    }
+}
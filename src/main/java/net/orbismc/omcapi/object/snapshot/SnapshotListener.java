@@ -0,0 +1,14 @@
+package net.orbismc.omcapi.object.snapshot;
+
+/**
+ * Notified on the capturing thread every time a new snapshot is published
+ */
+@FunctionalInterface
+public interface SnapshotListener {
+
+    /**
+     * @param previous the snapshot that was being served before, null for the first capture
+     * @param current the snapshot that has just been published
+     */
+    void onPublish(DataSnapshot previous, DataSnapshot current);
+}
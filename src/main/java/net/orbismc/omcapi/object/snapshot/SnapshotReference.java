@@ -0,0 +1,71 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import com.palmergames.bukkit.towny.object.Nation;
+import com.palmergames.bukkit.towny.object.Resident;
+import com.palmergames.bukkit.towny.object.Town;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class SnapshotReference implements NamedObject {
+
+    private final String name;
+    private final UUID uuid;
+
+    public SnapshotReference(String name, UUID uuid) {
+        this.name = name;
+        this.uuid = uuid;
+    }
+
+    public static SnapshotReference of(Resident resident) {
+        return resident == null ? null : new SnapshotReference(resident.getName(), resident.getUUID());
+    }
+
+    public static SnapshotReference of(Town town) {
+        return town == null ? null : new SnapshotReference(town.getName(), town.getUUID());
+    }
+
+    public static SnapshotReference of(Nation nation) {
+        return nation == null ? null : new SnapshotReference(nation.getName(), nation.getUUID());
+    }
+
+    public static List<SnapshotReference> ofResidents(Collection<Resident> residents) {
+        List<SnapshotReference> references = new ArrayList<>(residents.size());
+        for (Resident resident : residents) {
+            references.add(of(resident));
+        }
+
+        return Collections.unmodifiableList(references);
+    }
+
+    public static List<SnapshotReference> ofTowns(Collection<Town> towns) {
+        List<SnapshotReference> references = new ArrayList<>(towns.size());
+        for (Town town : towns) {
+            references.add(of(town));
+        }
+
+        return Collections.unmodifiableList(references);
+    }
+
+    public static List<SnapshotReference> ofNations(Collection<Nation> nations) {
+        List<SnapshotReference> references = new ArrayList<>(nations.size());
+        for (Nation nation : nations) {
+            references.add(of(nation));
+        }
+
+        return Collections.unmodifiableList(references);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public UUID getUUID() {
+        return uuid;
+    }
+}
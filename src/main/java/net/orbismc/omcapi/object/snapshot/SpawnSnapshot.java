@@ -0,0 +1,50 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import org.bukkit.Location;
+
+public class SpawnSnapshot {
+
+    private final String world;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final float pitch;
+    private final float yaw;
+
+    public SpawnSnapshot(Location location) {
+        this.world = location.getWorld().getName();
+        this.x = location.getX();
+        this.y = location.getY();
+        this.z = location.getZ();
+        this.pitch = location.getPitch();
+        this.yaw = location.getYaw();
+    }
+
+    public static SpawnSnapshot of(Location location) {
+        return location == null ? null : new SpawnSnapshot(location);
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+
+    public float getYaw() {
+        return yaw;
+    }
+}
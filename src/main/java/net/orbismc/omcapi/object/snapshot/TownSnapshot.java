@@ -0,0 +1,304 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import com.palmergames.bukkit.towny.object.Resident;
+import com.palmergames.bukkit.towny.object.Town;
+import com.palmergames.bukkit.towny.object.TownBlock;
+import com.palmergames.bukkit.towny.permissions.TownyPerms;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An immutable copy of a town, taken on the server thread
+ */
+public class TownSnapshot implements NamedObject {
+
+    private final String name;
+    private final UUID uuid;
+    private final String board;
+    private final String founder;
+    private final SnapshotReference mayor;
+    private final SnapshotReference nation;
+
+    private final long registered;
+    private final Long joinedNationAt;
+    private final Long ruinedAt;
+
+    private final boolean isPublic;
+    private final boolean isOpen;
+    private final boolean isNeutral;
+    private final boolean isCapital;
+    private final boolean isOverClaimed;
+    private final boolean isRuined;
+    private final boolean isForSale;
+    private final boolean hasNation;
+
+    private final int numTownBlocks;
+    private final int maxTownBlocks;
+    private final int bonusBlocks;
+    private final int numResidents;
+    private final Double forSalePrice;
+
+    private final PermissionsSnapshot perms;
+    private final SpawnSnapshot spawn;
+    private final String homeBlockWorld;
+    private final Integer homeBlockX;
+    private final Integer homeBlockZ;
+    private final Map<String, int[]> townBlocks;
+    private final Integer mapColor;
+
+    private final List<SnapshotReference> residents;
+    private final List<SnapshotReference> trusted;
+    private final List<SnapshotReference> outlaws;
+    private final Map<String, List<String>> ranks;
+
+    public TownSnapshot(Town town) {
+        this(town, null);
+    }
+
+    /**
+     * @param townBlocks the claims of the town's previous snapshot if they are known to be unchanged, or null to capture them
+     */
+    public TownSnapshot(Town town, Map<String, int[]> townBlocks) {
+        this.name = town.getName();
+        this.uuid = town.getUUID();
+        this.board = town.getBoard().isEmpty() ? null : town.getBoard();
+        this.founder = town.getFounder();
+        this.mayor = SnapshotReference.of(town.getMayor());
+        this.nation = SnapshotReference.of(town.getNationOrNull());
+
+        this.registered = town.getRegistered();
+        this.joinedNationAt = town.hasNation() ? town.getJoinedNationAt() : null;
+        this.ruinedAt = town.isRuined() ? town.getRuinedTime() : null;
+
+        this.isPublic = town.isPublic();
+        this.isOpen = town.isOpen();
+        this.isNeutral = town.isNeutral();
+        this.isCapital = town.isCapital();
+        this.isOverClaimed = town.isOverClaimed();
+        this.isRuined = town.isRuined();
+        this.isForSale = town.isForSale();
+        this.hasNation = town.hasNation();
+
+        this.numTownBlocks = town.getNumTownBlocks();
+        this.maxTownBlocks = town.getMaxTownBlocks();
+        this.bonusBlocks = town.getBonusBlocks();
+        this.numResidents = town.getNumResidents();
+        this.forSalePrice = !town.isForSale() ? null : town.getForSalePrice();
+
+        this.perms = new PermissionsSnapshot(town.getPermissions());
+        this.spawn = SpawnSnapshot.of(town.getSpawnOrNull());
+
+        TownBlock homeBlock = town.getHomeBlockOrNull();
+        this.homeBlockWorld = homeBlock == null ? null : homeBlock.getWorldCoord().getWorldName();
+        this.homeBlockX = homeBlock == null ? null : homeBlock.getX();
+        this.homeBlockZ = homeBlock == null ? null : homeBlock.getZ();
+        this.townBlocks = townBlocks != null ? townBlocks : captureTownBlocks(town);
+        this.mapColor = captureMapColor(town);
+
+        this.residents = SnapshotReference.ofResidents(town.getResidents());
+        this.trusted = SnapshotReference.ofResidents(town.getTrustedResidents());
+        this.outlaws = SnapshotReference.ofResidents(town.getOutlaws());
+
+        Map<String, List<String>> ranks = new LinkedHashMap<>();
+        for (String rank : TownyPerms.getTownRanks()) {
+            ranks.put(rank, town.getRank(rank).stream().map(Resident::getName).toList());
+        }
+        this.ranks = Collections.unmodifiableMap(ranks);
+    }
+
+    /**
+     * @return the RGB colour of the town's nation, falling back to the town's own colour, or null if neither has one
+     */
+    private static Integer captureMapColor(Town town) {
+        String hex = town.hasNation() ? town.getNationOrNull().getMapColorHexCode() : null;
+        if (hex == null || hex.isEmpty()) hex = town.getMapColorHexCode();
+        if (hex == null || hex.isEmpty()) return null;
+
+        try {
+            return Integer.parseInt(hex.startsWith("#") ? hex.substring(1) : hex, 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Packs the town's claims into one x, z interleaved array per world
+     */
+    private static Map<String, int[]> captureTownBlocks(Town town) {
+        Map<String, int[]> townBlocks = new LinkedHashMap<>();
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+
+        for (TownBlock townBlock : town.getTownBlocks()) {
+            String world = townBlock.getWorldCoord().getWorldName();
+            int size = sizes.getOrDefault(world, 0);
+
+            int[] coords = townBlocks.get(world);
+            if (coords == null) {
+                // The count is only a hint, it can be stale while Towny is changing the claims
+                coords = new int[Math.max(2, town.getNumTownBlocks() * 2)];
+            } else if (size + 2 > coords.length) {
+                int[] grown = new int[Math.max(4, coords.length * 2)];
+                System.arraycopy(coords, 0, grown, 0, size);
+                coords = grown;
+            }
+
+            coords[size] = townBlock.getX();
+            coords[size + 1] = townBlock.getZ();
+            townBlocks.put(world, coords);
+            sizes.put(world, size + 2);
+        }
+
+        for (Map.Entry<String, int[]> entry : townBlocks.entrySet()) {
+            int size = sizes.get(entry.getKey());
+            if (entry.getValue().length != size) {
+                int[] trimmed = new int[size];
+                System.arraycopy(entry.getValue(), 0, trimmed, 0, size);
+                entry.setValue(trimmed);
+            }
+        }
+
+        return Collections.unmodifiableMap(townBlocks);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public UUID getUUID() {
+        return uuid;
+    }
+
+    public String getBoard() {
+        return board;
+    }
+
+    public String getFounder() {
+        return founder;
+    }
+
+    public SnapshotReference getMayor() {
+        return mayor;
+    }
+
+    public SnapshotReference getNation() {
+        return nation;
+    }
+
+    public long getRegistered() {
+        return registered;
+    }
+
+    public Long getJoinedNationAt() {
+        return joinedNationAt;
+    }
+
+    public Long getRuinedAt() {
+        return ruinedAt;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    public boolean isNeutral() {
+        return isNeutral;
+    }
+
+    public boolean isCapital() {
+        return isCapital;
+    }
+
+    public boolean isOverClaimed() {
+        return isOverClaimed;
+    }
+
+    public boolean isRuined() {
+        return isRuined;
+    }
+
+    public boolean isForSale() {
+        return isForSale;
+    }
+
+    public boolean hasNation() {
+        return hasNation;
+    }
+
+    public int getNumTownBlocks() {
+        return numTownBlocks;
+    }
+
+    public int getMaxTownBlocks() {
+        return maxTownBlocks;
+    }
+
+    public int getBonusBlocks() {
+        return bonusBlocks;
+    }
+
+    public int getNumResidents() {
+        return numResidents;
+    }
+
+    public Double getForSalePrice() {
+        return forSalePrice;
+    }
+
+    public PermissionsSnapshot getPerms() {
+        return perms;
+    }
+
+    public SpawnSnapshot getSpawn() {
+        return spawn;
+    }
+
+    public String getHomeBlockWorld() {
+        return homeBlockWorld;
+    }
+
+    public Integer getHomeBlockX() {
+        return homeBlockX;
+    }
+
+    public Integer getHomeBlockZ() {
+        return homeBlockZ;
+    }
+
+    public Integer getMapColor() {
+        return mapColor;
+    }
+
+    /**
+     * @return the town's claims keyed by world name, each array holding interleaved x, z townblock coordinates.
+     * The arrays are shared and must not be modified.
+     */
+    public Map<String, int[]> getTownBlocks() {
+        return townBlocks;
+    }
+
+    public List<SnapshotReference> getResidents() {
+        return residents;
+    }
+
+    public List<SnapshotReference> getTrusted() {
+        return trusted;
+    }
+
+    public List<SnapshotReference> getOutlaws() {
+        return outlaws;
+    }
+
+    public Map<String, List<String>> getRanks() {
+        return ranks;
+    }
+}
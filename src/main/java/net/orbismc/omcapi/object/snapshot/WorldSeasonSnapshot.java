@@ -0,0 +1,68 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import me.casperge.realisticseasons.api.SeasonsAPI;
+import me.casperge.realisticseasons.calendar.Date;
+import org.bukkit.World;
+
+public class WorldSeasonSnapshot {
+
+    private final String worldName;
+    private final String date;
+    private final String currentSeason;
+    private final String dayOfWeek;
+    private final String monthName;
+    private final int worldSeconds;
+    private final int worldMinutes;
+    private final int worldHours;
+
+    private WorldSeasonSnapshot(SeasonsAPI seasonsAPI, World world, Date worldDate) {
+        this.worldName = world.getName();
+        this.date = worldDate.toString();
+        this.currentSeason = seasonsAPI.getSeason(world).toString();
+        this.dayOfWeek = String.valueOf(seasonsAPI.getDayOfWeek(world));
+        this.monthName = seasonsAPI.getCurrentMonthName(world);
+        this.worldSeconds = seasonsAPI.getSeconds(world);
+        this.worldMinutes = seasonsAPI.getMinutes(world);
+        this.worldHours = seasonsAPI.getHours(world);
+    }
+
+    /**
+     * @return the season details of the world, or null if RealisticSeasons has no date for it
+     */
+    public static WorldSeasonSnapshot of(SeasonsAPI seasonsAPI, World world) {
+        Date worldDate = seasonsAPI.getDate(world);
+        return worldDate == null ? null : new WorldSeasonSnapshot(seasonsAPI, world, worldDate);
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getCurrentSeason() {
+        return currentSeason;
+    }
+
+    public String getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public String getMonthName() {
+        return monthName;
+    }
+
+    public int getWorldSeconds() {
+        return worldSeconds;
+    }
+
+    public int getWorldMinutes() {
+        return worldMinutes;
+    }
+
+    public int getWorldHours() {
+        return worldHours;
+    }
+}
@@ -0,0 +1,82 @@
+package net.orbismc.omcapi.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodes a town's claims as delta and zig-zag varint coordinates, usually 2 bytes per claim.
+ * <pre>
+ * claims := format:u8 (= 1) worldCount:varint world*
+ * world  := nameLength:varint name:utf8 claimCount:varint claim*
+ * claim  := dx:svarint dz:svarint
+ * </pre>
+ * A varint stores 7 bits per byte, least significant group first, and sets the high bit on every byte but the last.
+ * An svarint is a varint of the zig-zag value, decoded as (v >>> 1) ^ -(v & 1).
+ * Claims are sorted by x and then z, and each one is stored as its difference from the previous claim in the same world,
+ * the first claim of a world being relative to 0, 0. Coordinates are in townblocks, not blocks.
+ * <p>
+ * The all-towns response is townCount:varint followed by (uuid:16 bytes, most significant first, claims) per town.
+ */
+public class ClaimEncoder {
+
+    public static final int FORMAT = 1;
+
+    public static byte[] encode(Map<String, int[]> townBlocks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(FORMAT);
+        writeVarInt(out, townBlocks.size());
+
+        for (Map.Entry<String, int[]> entry : townBlocks.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, name.length);
+            out.write(name, 0, name.length);
+
+            int[] coords = entry.getValue();
+            // z has its sign bit flipped so the low half sorts as a signed int, keeping negative z before positive z
+            long[] keys = new long[coords.length / 2];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = ((long) coords[i * 2] << 32) | ((coords[i * 2 + 1] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+            }
+            Arrays.sort(keys);
+
+            writeVarInt(out, keys.length);
+            int previousX = 0, previousZ = 0;
+            for (long key : keys) {
+                int x = (int) (key >> 32);
+                int z = (int) key ^ Integer.MIN_VALUE;
+                writeVarInt(out, zigZag(x - previousX));
+                writeVarInt(out, zigZag(z - previousZ));
+                previousX = x;
+                previousZ = z;
+            }
+        }
+
+        return out.toByteArray();
+    }
+
+    public static void writeUUID(ByteArrayOutputStream out, UUID uuid) {
+        writeLong(out, uuid.getMostSignificantBits());
+        writeLong(out, uuid.getLeastSignificantBits());
+    }
+
+    public static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+}
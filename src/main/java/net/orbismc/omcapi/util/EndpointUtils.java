@@ -1,78 +1,105 @@
 package net.orbismc.omcapi.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.palmergames.bukkit.towny.TownyAPI;
 import com.palmergames.bukkit.towny.object.Nation;
 import com.palmergames.bukkit.towny.object.Resident;
-import com.palmergames.bukkit.towny.object.Town;
 import com.palmergames.bukkit.towny.object.TownyPermission;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.entity.Player;
+import net.orbismc.omcapi.manager.BalanceManager;
+import net.orbismc.omcapi.object.balance.Balance;
+import net.orbismc.omcapi.object.balance.BalanceCache;
+import net.orbismc.omcapi.object.endpoint.PageRequest;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import net.orbismc.omcapi.object.snapshot.PermissionsSnapshot;
+import net.orbismc.omcapi.object.snapshot.SpawnSnapshot;
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 
 public class EndpointUtils {
 
-    public static int getNumOnlineNomads() {
-        int numOnlineNomads = 0;
+    public static void writePermsObject(JsonGenerator generator, PermissionsSnapshot permissions) throws IOException {
+        generator.writeStartObject();
 
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            Resident resident = TownyAPI.getInstance().getResident(player);
-            if (resident != null && !resident.hasTown() && resident.isOnline()) {
-                numOnlineNomads++;
-            }
-        }
+        writePermArray(generator, "build", permissions, TownyPermission.ActionType.BUILD);
+        writePermArray(generator, "destroy", permissions, TownyPermission.ActionType.DESTROY);
+        writePermArray(generator, "switch", permissions, TownyPermission.ActionType.SWITCH);
+        writePermArray(generator, "itemUse", permissions, TownyPermission.ActionType.ITEM_USE);
 
-        return numOnlineNomads;
+        generator.writeObjectFieldStart("flags");
+        generator.writeBooleanField("pvp", permissions.isPvp());
+        generator.writeBooleanField("explosion", permissions.isExplosion());
+        generator.writeBooleanField("fire", permissions.isFire());
+        generator.writeBooleanField("mobs", permissions.isMobs());
+        generator.writeEndObject();
+
+        generator.writeEndObject();
     }
 
-    public static JsonObject getPermsObject(TownyPermission permissions) {
-        JsonObject permsObject = new JsonObject();
+    private static void writePermArray(JsonGenerator generator, String fieldName, PermissionsSnapshot permissions, TownyPermission.ActionType actionType) throws IOException {
+        generator.writeArrayFieldStart(fieldName);
+
+        for (TownyPermission.PermLevel permLevel : PermissionsSnapshot.PERM_LEVELS) {
+            generator.writeBoolean(permissions.getPerm(permLevel, actionType));
+        }
 
-        permsObject.add("build", getPermArray(permissions, TownyPermission.ActionType.BUILD));
-        permsObject.add("destroy", getPermArray(permissions, TownyPermission.ActionType.DESTROY));
-        permsObject.add("switch", getPermArray(permissions, TownyPermission.ActionType.SWITCH));
-        permsObject.add("itemUse", getPermArray(permissions, TownyPermission.ActionType.ITEM_USE));
+        generator.writeEndArray();
+    }
 
-        JsonObject flagsObject = new JsonObject();
-        flagsObject.addProperty("pvp", permissions.pvp);
-        flagsObject.addProperty("explosion", permissions.explosion);
-        flagsObject.addProperty("fire", permissions.fire);
-        flagsObject.addProperty("mobs", permissions.mobs);
-        permsObject.add("flags", flagsObject);
+    /**
+     * Writes the balance field, and balanceAge if balances are nullable. Otherwise a balance that is not cached yet is
+     * read now, so the field is always a number as it was before balances were cached.
+     */
+    public static void writeBalanceFields(JsonGenerator generator, BalanceManager balanceManager, BalanceCache balances, UUID uuid) throws IOException {
+        if (!balanceManager.isNullable()) {
+            generator.writeNumberField("balance", balances.get(uuid).amount());
+            return;
+        }
 
-        return permsObject;
+        Balance balance = balances.peek(uuid);
+        JSONUtil.writeNumberFieldOrNull(generator, "balance", balance == null ? null : balance.amount());
+        JSONUtil.writeNumberFieldOrNull(generator, "balanceAge", balance == null ? null : balance.getAge());
     }
 
-    private static JsonArray getPermArray(TownyPermission permissions, TownyPermission.ActionType actionType) {
-        JsonArray jsonArray = new JsonArray();
+    public static void writeSpawnObject(JsonGenerator generator, @Nullable SpawnSnapshot spawn) throws IOException {
+        generator.writeStartObject();
 
-        jsonArray.add(permissions.getPerm(TownyPermission.PermLevel.RESIDENT, actionType));
-        jsonArray.add(permissions.getPerm(TownyPermission.PermLevel.NATION, actionType));
-        jsonArray.add(permissions.getPerm(TownyPermission.PermLevel.ALLY, actionType));
-        jsonArray.add(permissions.getPerm(TownyPermission.PermLevel.OUTSIDER, actionType));
+        generator.writeStringField("world", spawn == null ? null : spawn.getWorld());
+        JSONUtil.writeNumberFieldOrNull(generator, "x", spawn == null ? null : spawn.getX());
+        JSONUtil.writeNumberFieldOrNull(generator, "y", spawn == null ? null : spawn.getY());
+        JSONUtil.writeNumberFieldOrNull(generator, "z", spawn == null ? null : spawn.getZ());
+        JSONUtil.writeNumberFieldOrNull(generator, "pitch", spawn == null ? null : spawn.getPitch());
+        JSONUtil.writeNumberFieldOrNull(generator, "yaw", spawn == null ? null : spawn.getYaw());
 
-        return jsonArray;
+        generator.writeEndObject();
     }
 
-    public static JsonObject getCoordinatesObject(@Nullable Location location) {
-        JsonObject coordinatesObject = new JsonObject();
+    public static void writeRanksObject(JsonGenerator generator, Map<String, List<String>> ranks) throws IOException {
+        generator.writeStartObject();
+
+        for (Map.Entry<String, List<String>> rank : ranks.entrySet()) {
+            generator.writeFieldName(rank.getKey());
+            writeStringArray(generator, rank.getValue());
+        }
 
-        JsonObject spawnObject = new JsonObject();
-        spawnObject.addProperty("world", location == null ? null : location.getWorld().getName());
-        spawnObject.addProperty("x", location == null ? null : location.getX());
-        spawnObject.addProperty("y", location == null ? null : location.getY());
-        spawnObject.addProperty("z", location == null ? null : location.getZ());
-        spawnObject.addProperty("pitch", location == null ? null : location.getPitch());
-        spawnObject.addProperty("yaw", location == null ? null : location.getYaw());
+        generator.writeEndObject();
+    }
 
-        coordinatesObject.add("spawn", spawnObject);
+    public static void writeStringArray(JsonGenerator generator, List<String> strings) throws IOException {
+        generator.writeStartArray();
 
-        return coordinatesObject;
+        for (String string : strings) {
+            generator.writeString(string);
+        }
+
+        generator.writeEndArray();
     }
 
     public static List<Resident> getNationRank(Nation nation, String rank) {
@@ -86,61 +113,108 @@ public class EndpointUtils {
         return Collections.unmodifiableList(residentsWithRank);
     }
 
-    public static JsonArray getResidentArray(List<Resident> residents) {
+    public static JsonArray getNamedArray(List<? extends NamedObject> objects) {
         JsonArray jsonArray = new JsonArray();
 
-        for (Resident resident : residents) {
-            jsonArray.add(getResidentJsonObject(resident));
+        for (NamedObject object : objects) {
+            jsonArray.add(getNamedJsonObject(object));
         }
 
         return jsonArray;
     }
 
-    public static JsonObject getResidentJsonObject(Resident resident) {
+    public static JsonObject getNamedJsonObject(@Nullable NamedObject object) {
         JsonObject jsonObject = new JsonObject();
 
-        jsonObject.addProperty("name", resident == null ? null : resident.getName());
-        jsonObject.addProperty("uuid", resident == null ? null : resident.getUUID().toString());
+        jsonObject.addProperty("name", object == null ? null : object.getName());
+        jsonObject.addProperty("uuid", object == null ? null : object.getUUID().toString());
 
         return jsonObject;
     }
 
-    public static JsonArray getTownArray(List<Town> towns) {
-        JsonArray jsonArray = new JsonArray();
+    public static void writeNamedArray(JsonGenerator generator, List<? extends NamedObject> objects) throws IOException {
+        generator.writeStartArray();
 
-        for (Town town : towns) {
-            jsonArray.add(getTownJsonObject(town));
+        for (NamedObject object : objects) {
+            writeNamedObject(generator, object);
         }
 
-        return jsonArray;
+        generator.writeEndArray();
     }
 
-    public static JsonObject getTownJsonObject(Town town) {
-        JsonObject jsonObject = new JsonObject();
+    public static void writeNamedObject(JsonGenerator generator, @Nullable NamedObject object) throws IOException {
+        generator.writeStartObject();
 
-        jsonObject.addProperty("name", town == null ? null : town.getName());
-        jsonObject.addProperty("uuid", town == null ? null : town.getUUID().toString());
+        generator.writeStringField("name", object == null ? null : object.getName());
+        generator.writeStringField("uuid", object == null ? null : object.getUUID().toString());
 
-        return jsonObject;
+        generator.writeEndObject();
     }
 
-    public static JsonArray getNationArray(List<Nation> nations) {
-        JsonArray jsonArray = new JsonArray();
-
-        for (Nation nation : nations) {
-            jsonArray.add(getNationJsonObject(nation));
+    /**
+     * Writes the page of objects after the cursor, along with the cursor of the next page or null if this is the last one
+     * @param objects the objects sorted by UUID
+     */
+    public static void writeNamedPage(JsonGenerator generator, List<? extends NamedObject> objects, PageRequest page) throws IOException {
+        int start = 0;
+        UUID after = page.getAfterUUID();
+        if (after != null) {
+            int low = 0, high = objects.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (objects.get(mid).getUUID().compareTo(after) <= 0) low = mid + 1;
+                else high = mid;
+            }
+            start = low;
         }
 
-        return jsonArray;
+        // Widened so a very large max page size cannot overflow past the cursor
+        int end = (int) Math.min(objects.size(), (long) start + page.getLimit());
+
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("data");
+        for (int i = start; i < end; i++) {
+            writeNamedObject(generator, objects.get(i));
+        }
+        generator.writeEndArray();
+        generator.writeStringField("next", end < objects.size() ? PageRequest.encodeCursor(objects.get(end - 1).getUUID().toString()) : null);
+        generator.writeEndObject();
     }
 
-    public static JsonObject getNationJsonObject(Nation nation) {
-        JsonObject jsonObject = new JsonObject();
+    /**
+     * @return true if the Accept-Encoding header allows gzip, either by name or through "*", with a q-value above 0
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (!param.startsWith("q=") && !param.startsWith("Q=")) continue;
+
+                try {
+                    q = Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    q = 0;
+                }
+            }
 
-        jsonObject.addProperty("name", nation == null ? null : nation.getName());
-        jsonObject.addProperty("uuid", nation == null ? null : nation.getUUID().toString());
+            if (coding.equals("gzip") || coding.equals("x-gzip")) return q > 0;
+            if (coding.equals("*")) wildcard = q > 0;
+        }
 
-        return jsonObject;
+        return wildcard != null && wildcard;
     }
 
+    public static <T extends NamedObject> List<T> sortedByUUID(List<T> objects) {
+        List<T> sorted = new ArrayList<>(objects);
+        sorted.sort(Comparator.comparing(NamedObject::getUUID));
+
+        return sorted;
+    }
 }
@@ -1,10 +1,24 @@
 package net.orbismc.omcapi.util;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.google.gson.*;
 import io.javalin.http.BadRequestResponse;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Map;
+
 public class JSONUtil {
 
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .build();
+
     public static JsonObject getJsonObjectFromString(String string) {
         try {
             return JsonParser.parseString(string).getAsJsonObject();
@@ -48,4 +62,69 @@ public class JSONUtil {
         if (!element.isJsonObject()) return null;
         return element.getAsJsonObject();
     }
-}
+
+    /**
+     * Creates a UTF-8 generator that flushes, but does not close, the output stream when it is closed
+     */
+    public static JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        return JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8);
+    }
+
+    public static JsonGenerator createGenerator(Writer writer) throws IOException {
+        return JSON_FACTORY.createGenerator(writer);
+    }
+
+    public static JsonParser createParser(InputStream inputStream) throws IOException {
+        return JSON_FACTORY.createParser(inputStream);
+    }
+
+    public static void writeNumberFieldOrNull(JsonGenerator generator, String fieldName, Number number) throws IOException {
+        generator.writeFieldName(fieldName);
+        writeNumberOrNull(generator, number);
+    }
+
+    public static void writeNumberOrNull(JsonGenerator generator, Number number) throws IOException {
+        if (number == null) {
+            generator.writeNull();
+        } else if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            generator.writeNumber(number.longValue());
+        } else if (number instanceof Double) {
+            generator.writeNumber(number.doubleValue());
+        } else if (number instanceof Float) {
+            generator.writeNumber(number.floatValue());
+        } else {
+            generator.writeNumber(number.toString());
+        }
+    }
+
+    /**
+     * Streams a Gson tree into a Jackson generator, used for endpoints that still build their output with Gson
+     */
+    public static void writeJsonElement(JsonGenerator generator, JsonElement element) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            generator.writeNull();
+        } else if (element.isJsonObject()) {
+            generator.writeStartObject();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                generator.writeFieldName(entry.getKey());
+                writeJsonElement(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (element.isJsonArray()) {
+            generator.writeStartArray();
+            for (JsonElement innerElement : element.getAsJsonArray()) {
+                writeJsonElement(generator, innerElement);
+            }
+            generator.writeEndArray();
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                generator.writeBoolean(primitive.getAsBoolean());
+            } else if (primitive.isNumber()) {
+                writeNumberOrNull(generator, primitive.getAsNumber());
+            } else {
+                generator.writeString(primitive.getAsString());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package net.orbismc.omcapi.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keys ordered by descending score, backed by a treap that tracks subtree sizes, so updates, rank lookups and
+ * fetching a page by offset are all O(log n). Ties are broken by key so ranks are stable.
+ * Optionally capped, in which case the lowest scores are dropped once it is full.
+ */
+public class RankedSet<K extends Comparable<K>> {
+
+    private final int capacity;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private Node<K> root;
+
+    /**
+     * @param capacity the maximum number of keys kept, or 0 for no limit
+     */
+    public RankedSet(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized void put(K key, double score) {
+        Node<K> existing = nodes.get(key);
+        if (existing != null) {
+            if (existing.score == score) return;
+            root = remove(root, existing);
+        } else if (capacity > 0 && nodes.size() >= capacity) {
+            Node<K> lowest = last(root);
+            if (compare(score, key, lowest) >= 0) return;
+
+            root = remove(root, lowest);
+            nodes.remove(lowest.key);
+        }
+
+        Node<K> node = new Node<>(key, score, ThreadLocalRandom.current().nextInt());
+        nodes.put(key, node);
+        root = insert(root, node);
+    }
+
+    public synchronized void remove(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node != null) root = remove(root, node);
+    }
+
+    /**
+     * @return the key's 0-based rank, or -1 if it is not in the set
+     */
+    public synchronized int rankOf(K key) {
+        Node<K> node = nodes.get(key);
+        if (node == null) return -1;
+
+        int rank = 0;
+        Node<K> current = root;
+        while (current != null) {
+            int cmp = compare(node.score, node.key, current);
+            if (cmp < 0) {
+                current = current.left;
+            } else {
+                rank += size(current.left);
+                if (cmp == 0) return rank;
+
+                rank++;
+                current = current.right;
+            }
+        }
+
+        return -1;
+    }
+
+    public synchronized Double getScore(K key) {
+        Node<K> node = nodes.get(key);
+        return node == null ? null : node.score;
+    }
+
+    /**
+     * @return up to count entries starting at the given 0-based rank, highest score first
+     */
+    public synchronized List<Entry<K>> getRange(int offset, int count) {
+        List<Entry<K>> entries = new ArrayList<>(Math.max(0, Math.min(count, size(root) - offset)));
+        collect(root, offset, offset + count, 0, entries);
+        return entries;
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    private void collect(Node<K> node, int from, int to, int base, List<Entry<K>> entries) {
+        if (node == null || base >= to || base + node.size <= from) return;
+
+        collect(node.left, from, to, base, entries);
+        int index = base + size(node.left);
+        if (index >= from && index < to) entries.add(new Entry<>(node.key, node.score));
+        collect(node.right, from, to, index + 1, entries);
+    }
+
+    private Node<K> insert(Node<K> node, Node<K> inserted) {
+        if (node == null) return inserted;
+
+        if (inserted.priority > node.priority) {
+            Node<K>[] split = split(node, inserted);
+            inserted.left = split[0];
+            inserted.right = split[1];
+            update(inserted);
+            return inserted;
+        }
+
+        if (compare(inserted.score, inserted.key, node) < 0) node.left = insert(node.left, inserted);
+        else node.right = insert(node.right, inserted);
+
+        update(node);
+        return node;
+    }
+
+    private Node<K> remove(Node<K> node, Node<K> removed) {
+        if (node == null) return null;
+
+        if (node == removed) return merge(node.left, node.right);
+
+        if (compare(removed.score, removed.key, node) < 0) node.left = remove(node.left, removed);
+        else node.right = remove(node.right, removed);
+
+        update(node);
+        return node;
+    }
+
+    /**
+     * Splits the tree into the nodes ordered before the pivot and those after it
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K>[] split(Node<K> node, Node<K> pivot) {
+        if (node == null) return new Node[]{null, null};
+
+        if (compare(node.score, node.key, pivot) < 0) {
+            Node<K>[] split = split(node.right, pivot);
+            node.right = split[0];
+            update(node);
+            return new Node[]{node, split[1]};
+        }
+
+        Node<K>[] split = split(node.left, pivot);
+        node.left = split[1];
+        update(node);
+        return new Node[]{split[0], node};
+    }
+
+    private Node<K> merge(Node<K> left, Node<K> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private Node<K> last(Node<K> node) {
+        while (node.right != null) node = node.right;
+        return node;
+    }
+
+    /**
+     * Orders higher scores first, then keys in their natural order
+     */
+    private int compare(double score, K key, Node<K> node) {
+        int cmp = Double.compare(node.score, score);
+        return cmp != 0 ? cmp : key.compareTo(node.key);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    public record Entry<K>(K key, double score) {}
+
+    private static class Node<K> {
+        private final K key;
+        private final double score;
+        private final int priority;
+        private int size = 1;
+        private Node<K> left;
+        private Node<K> right;
+
+        private Node(K key, double score, int priority) {
+            this.key = key;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.orbismc.omcapi.util;
+
+import java.util.UUID;
+
+public class UUIDUtil {
+
+    /**
+     * Parses the canonical 8-4-4-4-12 form without throwing, so telling names and UUIDs apart costs no exception
+     * @return the UUID, or null if the string is not one
+     */
+    public static UUID parseOrNull(String string) {
+        if (string == null || string.length() != 36) return null;
+        if (string.charAt(8) != '-' || string.charAt(13) != '-' || string.charAt(18) != '-' || string.charAt(23) != '-') return null;
+
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        int digits = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) continue;
+
+            // Character.digit alone also accepts non-ASCII digits, such as fullwidth ones
+            char c = string.charAt(i);
+            int value = c < 128 ? Character.digit(c, 16) : -1;
+            if (value == -1) return null;
+
+            if (digits++ < 16) mostSigBits = (mostSigBits << 4) | value;
+            else leastSigBits = (leastSigBits << 4) | value;
+        }
+
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    public static boolean isUUID(String string) {
+        return parseOrNull(string) != null;
+    }
+}
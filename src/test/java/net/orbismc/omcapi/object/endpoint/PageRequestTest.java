@@ -0,0 +1,58 @@
+package net.orbismc.omcapi.object.endpoint;
+
+import io.javalin.http.BadRequestResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageRequestTest {
+
+    @Test
+    void limitDefaultsToTheMax() {
+        assertEquals(1000, PageRequest.of(null, null, 1000).getLimit());
+    }
+
+    @Test
+    void limitAboveTheMaxIsCapped() {
+        assertEquals(1000, PageRequest.of(null, 1001, 1000).getLimit());
+        assertEquals(1000, PageRequest.of(null, Integer.MAX_VALUE, 1000).getLimit());
+        assertEquals(1, PageRequest.of(null, 1, 1000).getLimit());
+    }
+
+    @Test
+    void limitBelowOneIsRejected() {
+        assertThrows(BadRequestResponse.class, () -> PageRequest.of(null, 0, 1000));
+        assertThrows(BadRequestResponse.class, () -> PageRequest.of(null, -1, 1000));
+    }
+
+    @Test
+    void missingOrEmptyCursorIsTheFirstPage() {
+        assertNull(PageRequest.of(null, null, 1000).getAfter());
+        assertNull(PageRequest.of("", null, 1000).getAfter());
+        assertNull(PageRequest.of("", null, 1000).getAfterUUID());
+    }
+
+    @Test
+    void cursorsRoundTrip() {
+        UUID uuid = UUID.randomUUID();
+        PageRequest page = PageRequest.of(PageRequest.encodeCursor(uuid.toString()), null, 1000);
+
+        assertEquals(uuid.toString(), page.getAfter());
+        assertEquals(uuid, page.getAfterUUID());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(BadRequestResponse.class, () -> PageRequest.of("not base64!", null, 1000));
+
+        String notAUUID = Base64.getUrlEncoder().encodeToString("Notch".getBytes(StandardCharsets.UTF_8));
+        PageRequest page = PageRequest.of(notAUUID, null, 1000);
+        assertThrows(BadRequestResponse.class, page::getAfterUUID);
+    }
+}
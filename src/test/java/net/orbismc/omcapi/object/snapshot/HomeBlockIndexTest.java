@@ -0,0 +1,50 @@
+package net.orbismc.omcapi.object.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HomeBlockIndexTest {
+
+    @Test
+    void ringDistanceNextToCellEdge() {
+        // A query at x = 15 is one townblock from the cell starting at x = 16
+        assertEquals(1, HomeBlockIndex.ringDistance(15, 8, 1));
+        assertEquals(17, HomeBlockIndex.ringDistance(15, 8, 2));
+
+        // The same on the negative side of the origin
+        assertEquals(1, HomeBlockIndex.ringDistance(-16, -8, 1));
+        assertEquals(1, HomeBlockIndex.ringDistance(-1, -8, 1));
+    }
+
+    @Test
+    void ringDistanceIsTheNearestTownBlockInTheRing() {
+        for (int x = -20; x <= 20; x++) {
+            for (int z = -20; z <= 20; z++) {
+                for (int ring = 1; ring <= 3; ring++) {
+                    assertEquals(nearestInRing(x, z, ring), HomeBlockIndex.ringDistance(x, z, ring), "x=" + x + " z=" + z + " ring=" + ring);
+                }
+            }
+        }
+    }
+
+    /**
+     * The shortest per-axis distance from the point to a townblock in the ring, found by checking every townblock in it
+     */
+    private static int nearestInRing(int x, int z, int ring) {
+        int cellX = x >> 4;
+        int cellZ = z >> 4;
+
+        int nearest = Integer.MAX_VALUE;
+        for (int bx = (cellX - ring) * 16; bx < (cellX + ring + 1) * 16; bx++) {
+            for (int bz = (cellZ - ring) * 16; bz < (cellZ + ring + 1) * 16; bz++) {
+                int ringOf = Math.max(Math.abs((bx >> 4) - cellX), Math.abs((bz >> 4) - cellZ));
+                if (ringOf != ring) continue;
+
+                nearest = Math.min(nearest, Math.max(Math.abs(bx - x), Math.abs(bz - z)));
+            }
+        }
+
+        return nearest;
+    }
+}
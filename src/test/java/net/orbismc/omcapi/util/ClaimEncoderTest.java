@@ -0,0 +1,143 @@
+package net.orbismc.omcapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClaimEncoderTest {
+
+    @Test
+    void varIntsMatchTheSpec() {
+        assertArrayEquals(new byte[]{0}, varInt(0));
+        assertArrayEquals(new byte[]{0x7F}, varInt(127));
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x01}, varInt(128));
+        assertArrayEquals(new byte[]{(byte) 0xAC, 0x02}, varInt(300));
+        assertArrayEquals(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}, varInt(-1));
+    }
+
+    @Test
+    void encodesASingleClaim() {
+        Map<String, int[]> townBlocks = Map.of("w", new int[]{1, -1});
+
+        // format, one world, name "w", one claim at dx = zigZag(1) = 2, dz = zigZag(-1) = 1
+        assertArrayEquals(new byte[]{1, 1, 1, 'w', 1, 2, 1}, ClaimEncoder.encode(townBlocks));
+    }
+
+    @Test
+    void uuidsAreMostSignificantFirst() {
+        UUID uuid = UUID.fromString("00112233-4455-6677-8899-aabbccddeeff");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ClaimEncoder.writeUUID(out, uuid);
+
+        byte[] expected = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            expected[i] = (byte) (i * 0x11);
+        }
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    void roundTripsThroughTheDocumentedDecoder() {
+        Random random = new Random(7);
+        Map<String, int[]> townBlocks = new LinkedHashMap<>();
+        townBlocks.put("world", randomClaims(random, 500, 2000));
+        townBlocks.put("world_nether", randomClaims(random, 50, 100000));
+        townBlocks.put("w\u00F6rld", new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, 0, 0});
+        townBlocks.put("empty", new int[0]);
+
+        Map<String, int[]> decoded = decode(ClaimEncoder.encode(townBlocks));
+
+        assertEquals(townBlocks.keySet(), decoded.keySet());
+        for (Map.Entry<String, int[]> entry : townBlocks.entrySet()) {
+            assertArrayEquals(sorted(entry.getValue()), decoded.get(entry.getKey()), entry.getKey());
+        }
+    }
+
+    private static int[] randomClaims(Random random, int count, int range) {
+        int[] coords = new int[count * 2];
+        for (int i = 0; i < coords.length; i++) {
+            coords[i] = random.nextInt(range * 2) - range;
+        }
+
+        return coords;
+    }
+
+    /**
+     * The claims as (x, z) pairs sorted by x and then z, the order the encoder writes them in
+     */
+    private static int[] sorted(int[] coords) {
+        List<int[]> claims = new ArrayList<>();
+        for (int i = 0; i < coords.length; i += 2) {
+            claims.add(new int[]{coords[i], coords[i + 1]});
+        }
+        claims.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+
+        int[] result = new int[coords.length];
+        for (int i = 0; i < claims.size(); i++) {
+            result[i * 2] = claims.get(i)[0];
+            result[i * 2 + 1] = claims.get(i)[1];
+        }
+
+        return result;
+    }
+
+    /**
+     * Decodes claims exactly as the format in the ClaimEncoder javadoc describes
+     */
+    private static Map<String, int[]> decode(byte[] bytes) {
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+        assertEquals(ClaimEncoder.FORMAT, in.read());
+
+        Map<String, int[]> townBlocks = new LinkedHashMap<>();
+        int worldCount = readVarInt(in);
+        for (int w = 0; w < worldCount; w++) {
+            byte[] name = new byte[readVarInt(in)];
+            assertEquals(name.length, in.read(name, 0, name.length));
+
+            int[] coords = new int[readVarInt(in) * 2];
+            int x = 0, z = 0;
+            for (int i = 0; i < coords.length; i += 2) {
+                x += readSVarInt(in);
+                z += readSVarInt(in);
+                coords[i] = x;
+                coords[i + 1] = z;
+            }
+
+            townBlocks.put(new String(name, StandardCharsets.UTF_8), coords);
+        }
+
+        assertEquals(0, in.available());
+        return townBlocks;
+    }
+
+    private static int readVarInt(ByteArrayInputStream in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    private static int readSVarInt(ByteArrayInputStream in) {
+        int v = readVarInt(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static byte[] varInt(int value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ClaimEncoder.writeVarInt(out, value);
+        return out.toByteArray();
+    }
+}
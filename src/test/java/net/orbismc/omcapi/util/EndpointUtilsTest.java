@@ -0,0 +1,211 @@
+package net.orbismc.omcapi.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.orbismc.omcapi.object.endpoint.PageRequest;
+import net.orbismc.omcapi.object.snapshot.NamedObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndpointUtilsTest {
+
+    @Test
+    void pagesThroughEveryObjectOnce() throws IOException {
+        List<Named> objects = named(25);
+
+        List<String> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonObject page = writePage(objects, PageRequest.of(cursor, 10, 1000));
+            pageSizes.add(page.getAsJsonArray("data").size());
+            for (JsonElement element : page.getAsJsonArray("data")) {
+                seen.add(element.getAsJsonObject().get("uuid").getAsString());
+            }
+
+            cursor = page.get("next").isJsonNull() ? null : page.get("next").getAsString();
+        } while (cursor != null);
+
+        assertEquals(List.of(10, 10, 5), pageSizes);
+        assertEquals(uuids(objects), seen);
+    }
+
+    @Test
+    void fullLastPageHasNoNextCursor() throws IOException {
+        List<Named> objects = named(20);
+
+        JsonObject first = writePage(objects, PageRequest.of(null, 10, 1000));
+        JsonObject last = writePage(objects, PageRequest.of(first.get("next").getAsString(), 10, 1000));
+
+        assertEquals(10, last.getAsJsonArray("data").size());
+        assertTrue(last.get("next").isJsonNull());
+    }
+
+    @Test
+    void cursorAtOrPastTheEndIsAnEmptyLastPage() throws IOException {
+        List<Named> objects = named(5);
+
+        JsonObject atEnd = writePage(objects, PageRequest.of(cursor(objects.get(4).getUUID()), 10, 1000));
+        assertEquals(0, atEnd.getAsJsonArray("data").size());
+        assertTrue(atEnd.get("next").isJsonNull());
+
+        JsonObject pastEnd = writePage(objects, PageRequest.of(cursor(new UUID(Long.MAX_VALUE, Long.MAX_VALUE)), 10, 1000));
+        assertEquals(0, pastEnd.getAsJsonArray("data").size());
+        assertTrue(pastEnd.get("next").isJsonNull());
+    }
+
+    @Test
+    void cursorOfARemovedObjectResumesAfterIt() throws IOException {
+        List<Named> objects = named(10);
+        UUID removed = objects.remove(4).getUUID();
+
+        JsonObject page = writePage(objects, PageRequest.of(cursor(removed), 2, 1000));
+        assertEquals(objects.get(4).getUUID().toString(), page.getAsJsonArray("data").get(0).getAsJsonObject().get("uuid").getAsString());
+    }
+
+    @Test
+    void emptyList() throws IOException {
+        JsonObject page = writePage(List.of(), PageRequest.of(null, 10, 1000));
+
+        assertEquals(0, page.getAsJsonArray("data").size());
+        assertTrue(page.get("next").isJsonNull());
+    }
+
+    @Test
+    void limitAboveTheMaxIsCapped() throws IOException {
+        List<Named> objects = named(30);
+        JsonObject page = writePage(objects, PageRequest.of(null, 5000, 10));
+
+        assertEquals(10, page.getAsJsonArray("data").size());
+        assertEquals(cursor(objects.get(9).getUUID()), page.get("next").getAsString());
+    }
+
+    @Test
+    void unboundedMaxAfterACursorDoesNotOverflow() throws IOException {
+        List<Named> objects = named(5);
+        JsonObject page = writePage(objects, PageRequest.of(cursor(objects.get(1).getUUID()), null, Integer.MAX_VALUE));
+
+        assertEquals(3, page.getAsJsonArray("data").size());
+        assertTrue(page.get("next").isJsonNull());
+    }
+
+    @Test
+    void namesAreWrittenAlongsideUUIDs() throws IOException {
+        List<Named> objects = named(1);
+        JsonObject page = writePage(objects, PageRequest.of(null, null, 10));
+
+        JsonObject object = page.getAsJsonArray("data").get(0).getAsJsonObject();
+        assertEquals("name0", object.get("name").getAsString());
+        assertTrue(page.get("next").isJsonNull());
+    }
+
+    @Test
+    void missingOrEmptyAcceptEncoding() {
+        assertFalse(EndpointUtils.acceptsGzip(null));
+        assertFalse(EndpointUtils.acceptsGzip(""));
+    }
+
+    @Test
+    void gzipByName() {
+        assertTrue(EndpointUtils.acceptsGzip("gzip"));
+        assertTrue(EndpointUtils.acceptsGzip("GZIP"));
+        assertTrue(EndpointUtils.acceptsGzip("x-gzip"));
+        assertTrue(EndpointUtils.acceptsGzip("deflate, gzip, br"));
+        assertTrue(EndpointUtils.acceptsGzip(" gzip ;q=0.5"));
+
+        assertFalse(EndpointUtils.acceptsGzip("deflate, br"));
+        assertFalse(EndpointUtils.acceptsGzip("identity"));
+        assertFalse(EndpointUtils.acceptsGzip("gzipped"));
+    }
+
+    @Test
+    void gzipQValues() {
+        assertTrue(EndpointUtils.acceptsGzip("gzip;q=1"));
+        assertTrue(EndpointUtils.acceptsGzip("gzip;q=0.001"));
+        assertTrue(EndpointUtils.acceptsGzip("gzip; Q=0.5"));
+
+        assertFalse(EndpointUtils.acceptsGzip("gzip;q=0"));
+        assertFalse(EndpointUtils.acceptsGzip("gzip; q=0.000"));
+        assertFalse(EndpointUtils.acceptsGzip("br, gzip;q=0"));
+    }
+
+    @Test
+    void malformedGzipQValuesRefuse() {
+        assertFalse(EndpointUtils.acceptsGzip("gzip;q="));
+        assertFalse(EndpointUtils.acceptsGzip("gzip;q=abc"));
+        assertFalse(EndpointUtils.acceptsGzip("gzip;q=NaN"));
+    }
+
+    @Test
+    void wildcardAllowsGzip() {
+        assertTrue(EndpointUtils.acceptsGzip("*"));
+        assertTrue(EndpointUtils.acceptsGzip("br, *;q=0.1"));
+        assertFalse(EndpointUtils.acceptsGzip("*;q=0"));
+    }
+
+    @Test
+    void gzipByNameOverridesTheWildcard() {
+        assertTrue(EndpointUtils.acceptsGzip("*;q=0, gzip"));
+        assertFalse(EndpointUtils.acceptsGzip("gzip;q=0, *"));
+        assertFalse(EndpointUtils.acceptsGzip("*, gzip;q=0"));
+    }
+
+    private static JsonObject writePage(List<? extends NamedObject> objects, PageRequest page) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            EndpointUtils.writeNamedPage(generator, objects, page);
+        }
+
+        return JsonParser.parseString(writer.toString()).getAsJsonObject();
+    }
+
+    /**
+     * Objects already sorted by UUID, as writeNamedPage expects
+     */
+    private static List<Named> named(int count) {
+        List<Named> objects = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            objects.add(new Named("name" + i, new UUID(0, i * 2L)));
+        }
+
+        return objects;
+    }
+
+    private static List<String> uuids(List<Named> objects) {
+        List<String> uuids = new ArrayList<>();
+        for (Named object : objects) {
+            uuids.add(object.getUUID().toString());
+        }
+
+        return uuids;
+    }
+
+    private static String cursor(UUID uuid) {
+        return PageRequest.encodeCursor(uuid.toString());
+    }
+
+    private record Named(String name, UUID uuid) implements NamedObject {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public UUID getUUID() {
+            return uuid;
+        }
+    }
+}
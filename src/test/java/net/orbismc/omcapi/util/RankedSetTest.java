@@ -0,0 +1,125 @@
+package net.orbismc.omcapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankedSetTest {
+
+    @Test
+    void ordersByDescendingScoreThenKey() {
+        RankedSet<String> set = new RankedSet<>(0);
+        set.put("b", 1);
+        set.put("a", 1);
+        set.put("c", 2);
+
+        assertEquals(List.of("c", "a", "b"), keys(set.getRange(0, 10)));
+        assertEquals(0, set.rankOf("c"));
+        assertEquals(1, set.rankOf("a"));
+        assertEquals(2, set.rankOf("b"));
+    }
+
+    @Test
+    void updateAndRemove() {
+        RankedSet<String> set = new RankedSet<>(0);
+        set.put("a", 1);
+        set.put("b", 2);
+        set.put("a", 3);
+
+        assertEquals(2, set.size());
+        assertEquals(0, set.rankOf("a"));
+        assertEquals(3.0, set.getScore("a"));
+
+        set.remove("a");
+        set.remove("missing");
+
+        assertEquals(1, set.size());
+        assertEquals(-1, set.rankOf("a"));
+        assertNull(set.getScore("a"));
+        assertEquals(0, set.rankOf("b"));
+    }
+
+    @Test
+    void capacityDropsTheLowestScores() {
+        RankedSet<String> set = new RankedSet<>(2);
+        set.put("a", 3);
+        set.put("b", 2);
+
+        // Lower than everything kept, so it is never added
+        set.put("c", 1);
+        assertEquals(2, set.size());
+        assertEquals(-1, set.rankOf("c"));
+
+        // Higher than the lowest, which makes room for it
+        set.put("d", 5);
+        assertEquals(List.of("d", "a"), keys(set.getRange(0, 10)));
+
+        // Updating a key that is already kept never evicts another
+        set.put("a", 0);
+        assertEquals(List.of("d", "a"), keys(set.getRange(0, 10)));
+    }
+
+    @Test
+    void rangePages() {
+        RankedSet<Integer> set = new RankedSet<>(0);
+        for (int i = 0; i < 10; i++) {
+            set.put(i, i);
+        }
+
+        assertEquals(List.of(9, 8, 7), keys(set.getRange(0, 3)));
+        assertEquals(List.of(6, 5, 4), keys(set.getRange(3, 3)));
+        assertEquals(List.of(0), keys(set.getRange(9, 3)));
+        assertTrue(set.getRange(10, 3).isEmpty());
+        assertTrue(set.getRange(20, 3).isEmpty());
+        assertTrue(set.getRange(0, 0).isEmpty());
+    }
+
+    @Test
+    void matchesASortedList() {
+        Random random = new Random(42);
+        RankedSet<Integer> set = new RankedSet<>(0);
+        Map<Integer, Double> scores = new HashMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                set.remove(key);
+                scores.remove(key);
+            } else {
+                double score = random.nextInt(20);
+                set.put(key, score);
+                scores.put(key, score);
+            }
+
+            if (i % 250 != 0) continue;
+
+            List<Integer> expected = new ArrayList<>(scores.keySet());
+            expected.sort(Comparator.comparing((Integer k) -> scores.get(k)).reversed().thenComparing(Comparator.naturalOrder()));
+
+            assertEquals(expected, keys(set.getRange(0, scores.size())));
+            int to = Math.min(expected.size(), 30);
+            assertEquals(expected.subList(Math.min(10, to), to), keys(set.getRange(10, 20)));
+            for (int rank = 0; rank < expected.size(); rank++) {
+                assertEquals(rank, set.rankOf(expected.get(rank)));
+            }
+        }
+    }
+
+    private static <K> List<K> keys(List<RankedSet.Entry<K>> entries) {
+        List<K> keys = new ArrayList<>(entries.size());
+        for (RankedSet.Entry<K> entry : entries) {
+            keys.add(entry.key());
+        }
+
+        return keys;
+    }
+}
@@ -0,0 +1,65 @@
+package net.orbismc.omcapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UUIDUtilTest {
+
+    @Test
+    void parsesCanonicalUUIDs() {
+        Random random = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            assertEquals(uuid, UUIDUtil.parseOrNull(uuid.toString()));
+        }
+    }
+
+    @Test
+    void ignoresCase() {
+        UUID uuid = UUID.fromString("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0");
+        assertEquals(uuid, UUIDUtil.parseOrNull("0F1E2D3C-4B5A-6978-8796-A5B4C3D2E1F0"));
+        assertEquals(uuid, UUIDUtil.parseOrNull("0f1E2d3C-4b5A-6978-8796-a5B4c3D2e1F0"));
+    }
+
+    @Test
+    void boundaries() {
+        assertEquals(new UUID(0, 0), UUIDUtil.parseOrNull("00000000-0000-0000-0000-000000000000"));
+        assertEquals(new UUID(-1, -1), UUIDUtil.parseOrNull("ffffffff-ffff-ffff-ffff-ffffffffffff"));
+        assertEquals(new UUID(Long.MIN_VALUE, Long.MAX_VALUE), UUIDUtil.parseOrNull("80000000-0000-0000-7fff-ffffffffffff"));
+    }
+
+    @Test
+    void rejectsMalformedStrings() {
+        assertNull(UUIDUtil.parseOrNull(null));
+        assertNull(UUIDUtil.parseOrNull(""));
+        assertNull(UUIDUtil.parseOrNull("Notch"));
+
+        // One character too short or too long
+        assertNull(UUIDUtil.parseOrNull("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f"));
+        assertNull(UUIDUtil.parseOrNull("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f00"));
+
+        // Without dashes, dashes moved, and dashes replaced
+        assertNull(UUIDUtil.parseOrNull("0f1e2d3c4b5a69788796a5b4c3d2e1f0"));
+        assertNull(UUIDUtil.parseOrNull("0f1e2d3-c4b5a-6978-8796-a5b4c3d2e1f0"));
+        assertNull(UUIDUtil.parseOrNull("0f1e2d3c_4b5a_6978_8796_a5b4c3d2e1f0"));
+
+        // Non-hex characters, including a sign and a Unicode digit that Character.digit accepts
+        assertNull(UUIDUtil.parseOrNull("0f1e2d3g-4b5a-6978-8796-a5b4c3d2e1f0"));
+        assertNull(UUIDUtil.parseOrNull("+f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0"));
+        assertNull(UUIDUtil.parseOrNull("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f\uFF10"));
+        assertNull(UUIDUtil.parseOrNull("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f\u0660"));
+    }
+
+    @Test
+    void isUUID() {
+        assertTrue(UUIDUtil.isUUID("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0"));
+        assertFalse(UUIDUtil.isUUID("0f1e2d3c4b5a69788796a5b4c3d2e1f0"));
+    }
+}